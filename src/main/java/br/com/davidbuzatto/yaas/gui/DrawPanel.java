@@ -245,14 +245,7 @@ public class DrawPanel extends JPanel {
         char[] cs = simulationString.toCharArray();
         int i;
         
-        int currentSymbolIndex = 0;
-        for ( int k = 0; k < currentSimulationStep; k++ ) {
-            int str1Length = pdaSimulationSteps.get( k ).getId().getString().length();
-            int str2Length = pdaSimulationSteps.get( k+1 ).getId().getString().length();
-            if ( str1Length != str2Length ) {
-                currentSymbolIndex++;
-            }
-        }
+        int currentSymbolIndex = pdaSimulationSteps.get( currentSimulationStep ).getId().getOffset();
         
         for ( i = 0; i < cs.length; i++ ) {
 
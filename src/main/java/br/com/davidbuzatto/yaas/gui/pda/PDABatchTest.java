@@ -18,6 +18,8 @@ package br.com.davidbuzatto.yaas.gui.pda;
 
 import br.com.davidbuzatto.yaas.model.pda.PDA;
 import br.com.davidbuzatto.yaas.model.pda.PDAAcceptanceType;
+import br.com.davidbuzatto.yaas.model.pda.PDAExecutionMode;
+import br.com.davidbuzatto.yaas.model.pda.PDAExecutor;
 import br.com.davidbuzatto.yaas.util.CharacterConstants;
 import br.com.davidbuzatto.yaas.util.Utils;
 import java.awt.Frame;
@@ -151,9 +153,12 @@ public class PDABatchTest extends javax.swing.JDialog {
         StringBuilder sb = new StringBuilder();
         boolean first = true;
         
+        PDAExecutor executor = new PDAExecutor( 
+                pda, acceptanceType, PDAExecutionMode.HEADLESS );
+        
         for ( String str : strings ) {
             
-            boolean accepted = pda.accepts( str, acceptanceType );
+            boolean accepted = executor.accepts( str );
             
             if ( !first ) {
                 sb.append( "\n" );
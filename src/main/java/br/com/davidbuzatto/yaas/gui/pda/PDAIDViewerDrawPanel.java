@@ -175,10 +175,10 @@ public class PDAIDViewerDrawPanel extends JPanel {
         this.pda = pda;
     }
     
-    public void arrangeAndProccessIds() {
+    public void arrangeAndProccessIds( PDAID root, List<PDAID> ids ) {
         
-        root = pda.getRootId();
-        ids = pda.getIds();
+        this.root = root;
+        this.ids = ids;
         lines = new ArrayList<>();
         
         size = PDAArrangement.arrangeIDsInTreeFormat( 
@@ -17,6 +17,7 @@
 package br.com.davidbuzatto.yaas.gui.pda;
 
 import br.com.davidbuzatto.yaas.model.pda.PDA;
+import br.com.davidbuzatto.yaas.model.pda.PDASearchResult;
 import javax.swing.JScrollBar;
 
 /**
@@ -32,7 +33,7 @@ public class PDAIDViewerFrame extends javax.swing.JFrame {
     /**
      * Creates new form PDAIDViewerFrame
      */
-    public PDAIDViewerFrame( PDAInternalFrame pdaIFrame, PDA pda ) {
+    public PDAIDViewerFrame( PDAInternalFrame pdaIFrame, PDA pda, PDASearchResult result ) {
         
         this.pdaIFrame = pdaIFrame;
         this.pda = pda;
@@ -41,7 +42,7 @@ public class PDAIDViewerFrame extends javax.swing.JFrame {
         setLocationRelativeTo( pdaIFrame );
         
         drawPanel.setPda( pda );
-        drawPanel.arrangeAndProccessIds();
+        drawPanel.arrangeAndProccessIds( result.getRootId(), result.getIds() );
         drawPanel.repaint();
         drawPanel.revalidate();
         
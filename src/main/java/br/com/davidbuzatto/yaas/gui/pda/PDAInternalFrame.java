@@ -22,7 +22,10 @@ import br.com.davidbuzatto.yaas.gui.pda.properties.PDAStatePropertiesPanel;
 import br.com.davidbuzatto.yaas.gui.pda.properties.PDATransitionPropertiesPanel;
 import br.com.davidbuzatto.yaas.model.pda.PDA;
 import br.com.davidbuzatto.yaas.model.pda.PDAAcceptanceType;
+import br.com.davidbuzatto.yaas.model.pda.PDAExecutionMode;
 import br.com.davidbuzatto.yaas.model.pda.PDAOperation;
+import br.com.davidbuzatto.yaas.model.pda.PDASearchLimits;
+import br.com.davidbuzatto.yaas.model.pda.PDASearchResult;
 import br.com.davidbuzatto.yaas.model.pda.PDAState;
 import br.com.davidbuzatto.yaas.model.pda.PDATransition;
 import br.com.davidbuzatto.yaas.model.pda.PDAType;
@@ -101,6 +104,22 @@ public class PDAInternalFrame extends javax.swing.JInternalFrame {
     private static final String MODEL_PROPERTIES_CARD = "model";
     private static final String STATE_PROPERTIES_CARD = "state";
     private static final String TRANSITION_PROPERTIES_CARD = "transition";
+    private static final String DEPTH_LIMIT_ERROR_MESSAGE = 
+            """
+            The search was cut off at depth %d!
+            
+            No accepting path with at most %d moves was found, but a
+            longer one may exist, so the string was neither accepted
+            nor rejected. Test it without showing the IDs to decide it.
+            """;
+    private static final String NODE_LIMIT_ERROR_MESSAGE = 
+            """
+            The search was cut off after visiting %d IDs!
+            
+            No accepting path was found among them, but it may exist,
+            so the string was neither accepted nor rejected. Test it
+            without showing the IDs to decide it.
+            """;
     
     private PDA pda;
     private MainWindow mainWindow;
@@ -2399,21 +2418,42 @@ public class PDAInternalFrame extends javax.swing.JInternalFrame {
         
     }
     
+    private void showCutOffErrorMessage( PDASearchResult result ) {
+        
+        if ( result.isDepthLimitReached() ) {
+            int depth = result.getLimits().getMaxDepth();
+            Utils.showErrorMessage( this, 
+                    String.format( DEPTH_LIMIT_ERROR_MESSAGE, depth, depth ) );
+        } else {
+            Utils.showErrorMessage( this, String.format( 
+                    NODE_LIMIT_ERROR_MESSAGE, result.getLimits().getMaxNodes() ) );
+        }
+        
+    }
+    
     private void runSingleTest() throws HeadlessException {
         
         if ( pda.canExecute() ) {
             
-            if ( pda.accepts( txtTestString.getText(), 
-                    radioAcceptByFinalState.isSelected() ? 
-                            PDAAcceptanceType.FINAL_STATE : 
-                            PDAAcceptanceType.EMPTY_STACK ) ) {
+            PDAAcceptanceType acceptanceType = radioAcceptByFinalState.isSelected() ? 
+                    PDAAcceptanceType.FINAL_STATE : 
+                    PDAAcceptanceType.EMPTY_STACK;
+            PDASearchResult result = pda.execute( txtTestString.getText(), 
+                    acceptanceType, checkShowIDs.isSelected() ? 
+                            PDAExecutionMode.ID_TREE : 
+                            PDAExecutionMode.HEADLESS );
+            
+            if ( result.isAccepted() ) {
                 setTestToAcceptedInGUI( );
-            } else {
+            } else if ( result.isExhaustive() ) {
                 setTestToRejectedInGUI( );
+            } else {
+                resetTestInGUI();
+                showCutOffErrorMessage( result );
             }
             
             if ( checkShowIDs.isSelected() ) {
-                PDAIDViewerFrame pViewer = new PDAIDViewerFrame( this, pda );
+                PDAIDViewerFrame pViewer = new PDAIDViewerFrame( this, pda, result );
                 pViewer.setVisible( true );
             }
             
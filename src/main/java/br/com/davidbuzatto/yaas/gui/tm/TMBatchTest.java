@@ -18,9 +18,13 @@ package br.com.davidbuzatto.yaas.gui.tm;
 
 import br.com.davidbuzatto.yaas.model.tm.TM;
 import br.com.davidbuzatto.yaas.model.tm.TMAcceptanceType;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionMode;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionResult;
 import br.com.davidbuzatto.yaas.util.CharacterConstants;
 import br.com.davidbuzatto.yaas.util.Utils;
 import java.awt.Frame;
+import java.util.Arrays;
+import java.util.List;
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
@@ -33,6 +37,8 @@ import javax.swing.JTextArea;
  */
 public class TMBatchTest extends javax.swing.JDialog {
 
+    private static final String TITLE = "Batch Test";
+
     private TMInternalFrame tmIFrame;
     private TMAcceptanceType acceptanceType;
     
@@ -146,26 +152,68 @@ public class TMBatchTest extends javax.swing.JDialog {
 
     private void btnTestActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnTestActionPerformed
         
-        String[] strings = textAreaStrings.getText().split( "\n" );
+        List<String> strings = Arrays.asList( 
+                textAreaStrings.getText().split( "\n" ) );
+        
+        // the strings are executed in background, showing the progress in
+        // the title
+        btnTest.setEnabled( false );
+        textAreaStrings.setEditable( false );
+        tmIFrame.setTestsEnabled( false );
+        
+        new TMExecutionWorker( tm, strings, acceptanceType, 
+                TMExecutionMode.HEADLESS, 
+                progress -> setTitle( String.format( "%s (%s)", TITLE, progress ) ), 
+                results -> showResults( strings, results ) ).execute();
+        
+    }//GEN-LAST:event_btnTestActionPerformed
+
+    private void showResults( List<String> strings, List<TMExecutionResult> results ) {
+        
+        setTitle( TITLE );
+        btnTest.setEnabled( true );
+        textAreaStrings.setEditable( true );
+        tmIFrame.setTestsEnabled( true );
+        
+        if ( results == null ) {
+            return;
+        }
         
         StringBuilder sb = new StringBuilder();
         boolean first = true;
         
-        for ( String str : strings ) {
+        for ( int i = 0; i < strings.size(); i++ ) {
             
-            boolean accepted = tm.accepts( str, acceptanceType );
+            String str = strings.get( i );
+            TMExecutionResult result = results.get( i );
             
             if ( !first ) {
                 sb.append( "\n" );
             }
             
-            sb.append( String.format( "%s %c L(A)", 
-                    str.isEmpty() ? 
-                            CharacterConstants.EMPTY_STRING.toString() : 
-                            str, 
-                    accepted ? 
-                            CharacterConstants.ELEMENT_OF : 
-                            CharacterConstants.NOT_ELEMENT_OF ) );
+            if ( str.isEmpty() ) {
+                str = CharacterConstants.EMPTY_STRING.toString();
+            }
+            
+            // a string is decided only if the machine halted or if it was
+            // detected that it loops forever
+            if ( result.isAccepted() || result.isAbleToHalt() ) {
+                sb.append( String.format( "%s %c L(A)", str, 
+                        result.isAccepted() ? 
+                                CharacterConstants.ELEMENT_OF : 
+                                CharacterConstants.NOT_ELEMENT_OF ) );
+            } else if ( result.isLoopDetected() ) {
+                sb.append( String.format( "%s %c L(A) (loops forever)", str, 
+                        CharacterConstants.NOT_ELEMENT_OF ) );
+            } else if ( result.isCellLimitReached() ) {
+                sb.append( String.format( 
+                        "%s: did not halt (ran out of memory after %d steps)", 
+                        str, result.getSteps() ) );
+            } else {
+                sb.append( String.format( 
+                        "%s: did not halt after %d steps", 
+                        str, result.getSteps() ) );
+            }
             
             first = false;
             
@@ -182,8 +230,8 @@ public class TMBatchTest extends javax.swing.JDialog {
                 "Batch Test Results", 
                 JOptionPane.INFORMATION_MESSAGE );
         
-    }//GEN-LAST:event_btnTestActionPerformed
-
+    }
+    
     private void btnCloseActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnCloseActionPerformed
         setVisible( false );
     }//GEN-LAST:event_btnCloseActionPerformed
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.gui.tm;
+
+import br.com.davidbuzatto.yaas.model.tm.TM;
+import br.com.davidbuzatto.yaas.model.tm.TMAcceptanceType;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionLimits;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionMode;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionResult;
+import br.com.davidbuzatto.yaas.model.tm.TMProgressListener;
+import br.com.davidbuzatto.yaas.util.Utils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+
+/**
+ * Executes a Turing Machine for one or more strings outside the event
+ * dispatch thread, so the GUI keeps responding while a long execution runs.
+ * 
+ * The progress of the executions is delivered as a text and the results
+ * are delivered when all the strings were executed, both in the event
+ * dispatch thread.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMExecutionWorker extends SwingWorker<List<TMExecutionResult>, String> 
+        implements TMProgressListener {
+    
+    private final TM tm;
+    private final List<String> strings;
+    private final TMAcceptanceType acceptanceType;
+    private final TMExecutionMode mode;
+    private final Consumer<String> progressConsumer;
+    private final Consumer<List<TMExecutionResult>> resultsConsumer;
+    
+    private volatile int current;
+    
+    /**
+     * Creates a worker.
+     * 
+     * @param tm The Turing Machine. It must not be modified while the worker
+     * runs.
+     * @param strings The strings to be tested.
+     * @param acceptanceType The acceptance type.
+     * @param mode The execution mode.
+     * @param progressConsumer Receives the progress of the executions.
+     * @param resultsConsumer Receives the results, in the order of the
+     * strings, or null if the execution failed.
+     */
+    public TMExecutionWorker( TM tm, List<String> strings, 
+            TMAcceptanceType acceptanceType, TMExecutionMode mode, 
+            Consumer<String> progressConsumer, 
+            Consumer<List<TMExecutionResult>> resultsConsumer ) {
+        this.tm = tm;
+        this.strings = strings;
+        this.acceptanceType = acceptanceType;
+        this.mode = mode;
+        this.progressConsumer = progressConsumer;
+        this.resultsConsumer = resultsConsumer;
+    }
+    
+    @Override
+    protected List<TMExecutionResult> doInBackground() throws Exception {
+        
+        List<TMExecutionResult> results = new ArrayList<>();
+        
+        for ( current = 0; current < strings.size(); current++ ) {
+            results.add( tm.execute( strings.get( current ), acceptanceType, mode, 
+                    mode == TMExecutionMode.ID_TREE ? 
+                            TMExecutionLimits.getDefaultLimits() : 
+                            TMExecutionLimits.getDefaultHeadlessLimits(), 
+                    this ) );
+        }
+        
+        return results;
+        
+    }
+    
+    @Override
+    public void progressMade( long steps, long elapsedTime ) {
+        
+        long stepsPerSecond = steps * 1000 / Math.max( 1, elapsedTime );
+        
+        if ( strings.size() == 1 ) {
+            publish( String.format( "%,d steps (%,d steps/s)", 
+                    steps, stepsPerSecond ) );
+        } else {
+            publish( String.format( "string %d of %d, %,d steps (%,d steps/s)", 
+                    current + 1, strings.size(), steps, stepsPerSecond ) );
+        }
+        
+    }
+    
+    @Override
+    protected void process( List<String> chunks ) {
+        progressConsumer.accept( chunks.get( chunks.size() - 1 ) );
+    }
+    
+    @Override
+    protected void done() {
+        
+        List<TMExecutionResult> results = null;
+        
+        try {
+            results = get();
+        } catch ( InterruptedException | ExecutionException exc ) {
+            Utils.showException( exc );
+        }
+        
+        resultsConsumer.accept( results );
+        
+    }
+    
+}
@@ -175,10 +175,10 @@ public class TMIDViewerDrawPanel extends JPanel {
         this.tm = tm;
     }
     
-    public void arrangeAndProccessIds() {
+    public void arrangeAndProccessIds( TMID root, List<TMID> ids ) {
         
-        root = tm.getRootId();
-        ids = tm.getIds();
+        this.root = root;
+        this.ids = ids;
         lines = new ArrayList<>();
         
         size = TMArrangement.arrangeIDsInTreeFormat( 
@@ -17,6 +17,7 @@
 package br.com.davidbuzatto.yaas.gui.tm;
 
 import br.com.davidbuzatto.yaas.model.tm.TM;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionResult;
 import javax.swing.JScrollBar;
 
 /**
@@ -32,7 +33,7 @@ public class TMIDViewerFrame extends javax.swing.JFrame {
     /**
      * Creates new form TMIDViewerFrame
      */
-    public TMIDViewerFrame( TMInternalFrame tmIFrame, TM tm ) {
+    public TMIDViewerFrame( TMInternalFrame tmIFrame, TM tm, TMExecutionResult result ) {
         
         this.tmIFrame = tmIFrame;
         this.tm = tm;
@@ -41,7 +42,7 @@ public class TMIDViewerFrame extends javax.swing.JFrame {
         setLocationRelativeTo( tmIFrame );
         
         drawPanel.setTm( tm );
-        drawPanel.arrangeAndProccessIds();
+        drawPanel.arrangeAndProccessIds( result.getRootId(), result.getIds() );
         drawPanel.repaint();
         drawPanel.revalidate();
         
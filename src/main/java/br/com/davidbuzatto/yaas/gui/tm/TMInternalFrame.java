@@ -22,6 +22,8 @@ import br.com.davidbuzatto.yaas.gui.tm.properties.TMStatePropertiesPanel;
 import br.com.davidbuzatto.yaas.gui.tm.properties.TMTransitionPropertiesPanel;
 import br.com.davidbuzatto.yaas.model.tm.TM;
 import br.com.davidbuzatto.yaas.model.tm.TMAcceptanceType;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionMode;
+import br.com.davidbuzatto.yaas.model.tm.TMExecutionResult;
 import br.com.davidbuzatto.yaas.model.tm.TMOperation;
 import br.com.davidbuzatto.yaas.model.tm.TMState;
 import br.com.davidbuzatto.yaas.model.tm.TMTransition;
@@ -98,14 +100,30 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
     private static final String MODEL_PROPERTIES_CARD = "model";
     private static final String STATE_PROPERTIES_CARD = "state";
     private static final String TRANSITION_PROPERTIES_CARD = "transition";
-    private static final String MAX_COUNT_ERROR_MESSAGE = String.format(
+    private static final String MAX_COUNT_ERROR_MESSAGE = 
             """
             It seems that the designed Turing Machine doesn't halt!
             
-            Since YAAS can store around %d transitions in tests, 
-            either your input takes too long to be processed, or you
-            have an infinite loop.
-            """, ApplicationConstants.TURING_MACHINE_MAX_COUNT );
+            Since YAAS stopped the execution after %d steps, 
+            running %,.0f steps per second, either your input takes
+            too long to be processed, or you have an infinite loop.
+            """;
+    private static final String LOOP_ERROR_MESSAGE = 
+            """
+            The designed Turing Machine doesn't halt!
+            
+            After %d steps, YAAS detected that it repeats the last %d
+            steps forever.
+            """;
+    private static final String CELL_LIMIT_ERROR_MESSAGE = 
+            """
+            The search of the nondeterministic Turing Machine ran out of
+            memory!
+            
+            After %d steps, the explored configurations reached the limit
+            of %d tape cells without any accepting branch, so the string
+            was neither accepted nor rejected.
+            """;
     
     private TM tm;
     private MainWindow mainWindow;
@@ -140,6 +158,7 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
     private TMIDSimulationViewerFrame simulationVFrame;
     
     private TMBatchTest tmBatchTestDialog;
+    private TMExecutionWorker testWorker;
     private Color txtTestStringDefaultBC;
     private Color txtTestStringDefaultFC;
     private Color txtTestStringDefaultCaretColor;
@@ -1561,16 +1580,17 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
                 simulationSteps.clear();
                 currentSimulationStep = 0;
 
-                boolean accepted = tm.accepts( 
+                TMExecutionResult result = tm.execute( 
                         txtTestString.getText(), 
                         radioAcceptByFinalState.isSelected() ? 
                                 TMAcceptanceType.FINAL_STATE : 
                                 TMAcceptanceType.HALT,
                         simulationSteps );
+                boolean accepted = result.isAccepted();
 
-                if ( tm.isAbleToHalt() ) {
+                if ( result.isAbleToHalt() ) {
                     
-                    String tape = tm.getTapeAfterAcceptsExecution();
+                    String tape = result.getTapeAfterExecution();
                     if ( tape != null ) {
                         txtTape.setText( tape );
                     }
@@ -1593,7 +1613,7 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
                     drawPanel.requestFocus();
                     
                 } else {
-                    Utils.showErrorMessage( this, MAX_COUNT_ERROR_MESSAGE );
+                    showNotHaltedErrorMessage( result );
                     enableGUI();
                 }
             
@@ -2352,51 +2372,121 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
         
     }
     
+    private void showNotHaltedErrorMessage( TMExecutionResult result ) {
+        
+        if ( result.isLoopDetected() ) {
+            Utils.showErrorMessage( this, String.format( LOOP_ERROR_MESSAGE, 
+                    result.getSteps(), result.getLoopLength() ) );
+        } else if ( result.isCellLimitReached() ) {
+            Utils.showErrorMessage( this, String.format( CELL_LIMIT_ERROR_MESSAGE, 
+                    result.getSteps(), 
+                    ApplicationConstants.TURING_MACHINE_NTM_MAX_CELLS ) );
+        } else {
+            Utils.showErrorMessage( this, 
+                    String.format( MAX_COUNT_ERROR_MESSAGE, 
+                            result.getSteps(), result.getStepsPerSecond() ) );
+        }
+        
+    }
+    
     private void runSingleTest() throws HeadlessException {
         
+        if ( testWorker != null ) {
+            return;
+        }
+        
         tm.updateType();
         txtTape.setText( "" );
         
         if ( tm.canExecute() ) {
             
-            if ( tm.getType() == TMType.DTM ) {
-                
-                if ( tm.accepts( txtTestString.getText(), 
-                        radioAcceptByFinalState.isSelected() ? 
-                                TMAcceptanceType.FINAL_STATE : 
-                                TMAcceptanceType.HALT ) ) {
-                    setTestToAcceptedInGUI( );
-                } else {
-                    setTestToRejectedInGUI( );
-                }
+            // the execution runs in background, showing its progress in the
+            // tape field
+            boolean showIDs = checkShowIDs.isSelected();
+            resetTestInGUI();
+            setTestsEnabled( false );
+            lblTestResult.setText( "RUNNING" );
+            
+            testWorker = new TMExecutionWorker( tm, 
+                    List.of( txtTestString.getText() ), 
+                    radioAcceptByFinalState.isSelected() ? 
+                            TMAcceptanceType.FINAL_STATE : 
+                            TMAcceptanceType.HALT, 
+                    showIDs ? 
+                            TMExecutionMode.ID_TREE : 
+                            TMExecutionMode.HEADLESS, 
+                    progress -> txtTape.setText( progress ), 
+                    results -> finishSingleTest( results, showIDs ) );
+            testWorker.execute();
+            
+        } else {
+            Utils.showErrorMessage( this, "You must set an initial state!" );
+        }
+        
+    }
+    
+    private void finishSingleTest( List<TMExecutionResult> results, boolean showIDs ) {
+        
+        testWorker = null;
+        setTestsEnabled( true );
+        resetTestInGUI();
+        txtTape.setText( "" );
+        
+        if ( results == null ) {
+            return;
+        }
+        
+        TMExecutionResult result = results.get( 0 );
+        lblTestResult.setToolTipText( String.format( 
+                "%,d steps in %,d ms (%,.0f steps/s)", 
+                result.getSteps(), result.getElapsedTime(), 
+                result.getStepsPerSecond() ) );
+        
+        // a machine that loops forever rejects the string, but one that was
+        // stopped by the budget didn't decide it
+        if ( result.isAccepted() ) {
+            setTestToAcceptedInGUI( );
+        } else if ( result.isAbleToHalt() || result.isLoopDetected() ) {
+            setTestToRejectedInGUI( );
+        }
 
-                if ( tm.isAbleToHalt() ) {
-                    
-                    String tape = tm.getTapeAfterAcceptsExecution();
-                    if ( tape != null ) {
-                        txtTape.setText( tape );
-                    }
+        if ( result.isAbleToHalt() ) {
 
-                    if ( checkShowIDs.isSelected() ) {
-                        TMIDViewerFrame pViewer = new TMIDViewerFrame( this, tm );
-                        pViewer.setVisible( true );
-                    }
-                    
-                } else {
-                    Utils.showErrorMessage( this, MAX_COUNT_ERROR_MESSAGE );
-                }
-                
-            } else {
-                Utils.showErrorMessage( this, 
-                        "Nondeterministic Turing Machines are currently not supported!" );
+            String tape = result.getTapeAfterExecution();
+            if ( tape != null ) {
+                txtTape.setText( tape );
             }
-            
+
+            if ( showIDs ) {
+                TMIDViewerFrame pViewer = new TMIDViewerFrame( this, tm, result );
+                pViewer.setVisible( true );
+            }
+
         } else {
-            Utils.showErrorMessage( this, "You must set an initial state!" );
+            showNotHaltedErrorMessage( result );
         }
         
     }
     
+    /**
+     * Enables or disables the edition and the tests while a test runs in
+     * background.
+     * 
+     * @param enabled true to enable, false to disable.
+     */
+    void setTestsEnabled( boolean enabled ) {
+        
+        if ( enabled ) {
+            enableGUI();
+        } else {
+            disableGUI();
+        }
+        
+        txtTestString.setEditable( enabled );
+        btnStart.setEnabled( enabled );
+        
+    }
+    
     private void updateSimulationButtons( int step ) {
         
         if ( step == 0 && simulationSteps.size() == 1 ) {
@@ -2451,6 +2541,7 @@ public class TMInternalFrame extends javax.swing.JInternalFrame {
         txtTestString.setCaretColor( txtTestStringDefaultCaretColor );
         lblTestResult.setForeground( lblTestResultDefaultFC );
         lblTestResult.setText( "TEST RESULT" );
+        lblTestResult.setToolTipText( null );
     }
     
     private void btnMoveAction() {
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.cfg;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Context-Free Grammar representation.
+ * 
+ * The nonterminals are identified by their indexes, in the order they were
+ * added, and have names used only to present the grammar. The terminals are
+ * characters (see CFGProduction).
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class CFG {
+    
+    private final List<String> nonterminals;
+    private final List<CFGProduction> productions;
+    private int startSymbol;
+    
+    public CFG() {
+        nonterminals = new ArrayList<>();
+        productions = new ArrayList<>();
+    }
+    
+    /**
+     * Adds a nonterminal.
+     * 
+     * @param name The name of the nonterminal.
+     * @return The index of the new nonterminal.
+     */
+    public int addNonterminal( String name ) {
+        nonterminals.add( name );
+        return nonterminals.size() - 1;
+    }
+    
+    public void addProduction( CFGProduction production ) {
+        productions.add( production );
+    }
+
+    public int getNonterminalCount() {
+        return nonterminals.size();
+    }
+    
+    public String getNonterminalName( int nonterminal ) {
+        return nonterminals.get( nonterminal );
+    }
+
+    public List<CFGProduction> getProductions() {
+        return productions;
+    }
+
+    public int getStartSymbol() {
+        return startSymbol;
+    }
+
+    public void setStartSymbol( int startSymbol ) {
+        this.startSymbol = startSymbol;
+    }
+    
+    /**
+     * @return The productions grouped by their heads, indexed by nonterminal.
+     */
+    public List<List<CFGProduction>> getProductionsByHead() {
+        
+        List<List<CFGProduction>> byHead = new ArrayList<>();
+        for ( int i = 0; i < nonterminals.size(); i++ ) {
+            byHead.add( new ArrayList<>() );
+        }
+        
+        for ( CFGProduction p : productions ) {
+            byHead.get( p.getHead() ).add( p );
+        }
+        
+        return byHead;
+        
+    }
+    
+    /**
+     * @return The productions, one line for each nonterminal, starting with
+     * the start symbol.
+     */
+    @Override
+    public String toString() {
+        
+        StringBuilder sb = new StringBuilder();
+        List<List<CFGProduction>> byHead = getProductionsByHead();
+        
+        List<Integer> order = new ArrayList<>();
+        if ( !nonterminals.isEmpty() ) {
+            order.add( startSymbol );
+        }
+        for ( int i = 0; i < nonterminals.size(); i++ ) {
+            if ( i != startSymbol ) {
+                order.add( i );
+            }
+        }
+        
+        for ( int head : order ) {
+            
+            if ( byHead.get( head ).isEmpty() ) {
+                continue;
+            }
+            
+            sb.append( nonterminals.get( head ) )
+                    .append( " " ).append( CharacterConstants.ARROW_RIGHT ).append( " " );
+            boolean first = true;
+            
+            for ( CFGProduction p : byHead.get( head ) ) {
+                
+                if ( !first ) {
+                    sb.append( " | " );
+                }
+                
+                if ( p.getBody().length == 0 ) {
+                    sb.append( CharacterConstants.EMPTY_STRING );
+                } else {
+                    for ( int s : p.getBody() ) {
+                        if ( CFGProduction.isTerminal( s ) ) {
+                            sb.append( CFGProduction.getTerminal( s ) );
+                        } else {
+                            sb.append( nonterminals.get( s ) );
+                        }
+                    }
+                }
+                
+                first = false;
+                
+            }
+            
+            sb.append( "\n" );
+            
+        }
+        
+        return sb.toString();
+        
+    }
+    
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.cfg;
+
+import java.util.Arrays;
+
+/**
+ * A production of a Context-Free Grammar.
+ * 
+ * The symbols are encoded as integers: a non-negative value is the index of a
+ * nonterminal in the grammar and a negative value is a terminal, obtained
+ * with terminal( char ). An empty body is an epsilon production.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class CFGProduction {
+    
+    private final int head;
+    private final int[] body;
+    
+    public CFGProduction( int head, int... body ) {
+        this.head = head;
+        this.body = body;
+    }
+    
+    /**
+     * Encodes a terminal symbol.
+     * 
+     * @param symbol The terminal.
+     * @return The encoded terminal, always negative.
+     */
+    public static int terminal( char symbol ) {
+        return -1 - symbol;
+    }
+    
+    public static boolean isTerminal( int symbol ) {
+        return symbol < 0;
+    }
+    
+    /**
+     * Decodes a terminal symbol.
+     * 
+     * @param symbol The encoded terminal.
+     * @return The terminal.
+     */
+    public static char getTerminal( int symbol ) {
+        return (char) ( -1 - symbol );
+    }
+
+    public int getHead() {
+        return head;
+    }
+
+    public int[] getBody() {
+        return body;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + this.head;
+        hash = 59 * hash + Arrays.hashCode( this.body );
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( obj == null ) {
+            return false;
+        }
+        if ( getClass() != obj.getClass() ) {
+            return false;
+        }
+        final CFGProduction other = (CFGProduction) obj;
+        if ( this.head != other.head ) {
+            return false;
+        }
+        return Arrays.equals( this.body, other.body );
+    }
+
+    @Override
+    public String toString() {
+        return "CFGProduction{" + "head=" + head + ", body=" + Arrays.toString( body ) + '}';
+    }
+    
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.cfg.algorithms;
+
+import br.com.davidbuzatto.yaas.model.cfg.CFG;
+import br.com.davidbuzatto.yaas.model.cfg.CFGProduction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides the membership of strings in the language of a Context-Free Grammar
+ * using the Earley algorithm, in O(n^3) time for a string of length n.
+ * 
+ * Epsilon productions are handled as proposed by Aycock and Horspool: when a
+ * nullable nonterminal is predicted, the predicting item is advanced right
+ * away. The grammar is preprocessed once, so the same recognizer can be used
+ * to test many strings. Each item is packed in a long, which limits the
+ * bodies of the productions to 255 symbols.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class CFGEarleyRecognizer {
+    
+    private final int startSymbol;
+    private final int[] heads;
+    private final int[][] bodies;
+    private final int[][] productionsByHead;
+    private final boolean[] nullable;
+    
+    public CFGEarleyRecognizer( CFG grammar ) {
+        
+        List<CFGProduction> productions = grammar.getProductions();
+        int nonterminals = grammar.getNonterminalCount();
+        
+        startSymbol = grammar.getStartSymbol();
+        heads = new int[productions.size()];
+        bodies = new int[productions.size()][];
+        
+        int[] counts = new int[nonterminals];
+        for ( int i = 0; i < productions.size(); i++ ) {
+            heads[i] = productions.get( i ).getHead();
+            bodies[i] = productions.get( i ).getBody();
+            counts[heads[i]]++;
+        }
+        
+        productionsByHead = new int[nonterminals][];
+        for ( int i = 0; i < nonterminals; i++ ) {
+            productionsByHead[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for ( int i = 0; i < heads.length; i++ ) {
+            productionsByHead[heads[i]][counts[heads[i]]++] = i;
+        }
+        
+        nullable = new boolean[nonterminals];
+        boolean changed = true;
+        
+        while ( changed ) {
+            changed = false;
+            for ( int i = 0; i < heads.length; i++ ) {
+                if ( !nullable[heads[i]] && isNullable( bodies[i] ) ) {
+                    nullable[heads[i]] = true;
+                    changed = true;
+                }
+            }
+        }
+        
+    }
+    
+    private boolean isNullable( int[] body ) {
+        for ( int s : body ) {
+            if ( CFGProduction.isTerminal( s ) || !nullable[s] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Decides if a string is generated by the grammar.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is generated, false otherwise.
+     */
+    public boolean accepts( String str ) {
+        
+        int n = str.length();
+        
+        if ( productionsByHead.length == 0 ) {
+            return false;
+        }
+        
+        // item sets. an item (production, dot, origin) is encoded in a long
+        List<List<Long>> items = new ArrayList<>();
+        List<Set<Long>> seen = new ArrayList<>();
+        List<Map<Integer, List<Long>>> waiting = new ArrayList<>();
+        
+        for ( int i = 0; i <= n; i++ ) {
+            items.add( new ArrayList<>() );
+            seen.add( new HashSet<>() );
+            waiting.add( new HashMap<>() );
+        }
+        
+        for ( int p : productionsByHead[startSymbol] ) {
+            add( items, seen, 0, item( p, 0, 0 ) );
+        }
+        
+        for ( int i = 0; i <= n; i++ ) {
+            
+            List<Long> current = items.get( i );
+            
+            if ( current.isEmpty() ) {
+                return false;
+            }
+            
+            for ( int k = 0; k < current.size(); k++ ) {
+                
+                long it = current.get( k );
+                int p = production( it );
+                int dot = dot( it );
+                int origin = origin( it );
+                int[] body = bodies[p];
+                
+                if ( dot < body.length ) {
+                    
+                    int symbol = body[dot];
+                    
+                    if ( CFGProduction.isTerminal( symbol ) ) {
+                        
+                        // scan
+                        if ( i < n && CFGProduction.getTerminal( symbol ) == str.charAt( i ) ) {
+                            add( items, seen, i + 1, item( p, dot + 1, origin ) );
+                        }
+                        
+                    } else {
+                        
+                        // predict
+                        waiting.get( i ).computeIfAbsent( symbol, s -> new ArrayList<>() ).add( it );
+                        
+                        for ( int q : productionsByHead[symbol] ) {
+                            add( items, seen, i, item( q, 0, i ) );
+                        }
+                        
+                        if ( nullable[symbol] ) {
+                            add( items, seen, i, item( p, dot + 1, origin ) );
+                        }
+                        
+                    }
+                    
+                } else {
+                    
+                    // complete. when origin == i, the items that will wait
+                    // for this head later were already advanced by the
+                    // prediction, since the head is nullable
+                    List<Long> parents = waiting.get( origin ).get( heads[p] );
+                    
+                    if ( parents != null ) {
+                        for ( int w = 0; w < parents.size(); w++ ) {
+                            long parent = parents.get( w );
+                            add( items, seen, i, item( production( parent ), 
+                                    dot( parent ) + 1, origin( parent ) ) );
+                        }
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+        for ( long it : items.get( n ) ) {
+            int p = production( it );
+            if ( heads[p] == startSymbol && origin( it ) == 0 && 
+                    dot( it ) == bodies[p].length ) {
+                return true;
+            }
+        }
+        
+        return false;
+        
+    }
+    
+    private static void add( List<List<Long>> items, List<Set<Long>> seen, int set, long item ) {
+        if ( seen.get( set ).add( item ) ) {
+            items.get( set ).add( item );
+        }
+    }
+    
+    private static long item( int production, int dot, int origin ) {
+        return ( (long) production << 40 ) | ( (long) dot << 32 ) | origin;
+    }
+    
+    private static int production( long item ) {
+        return (int) ( item >>> 40 );
+    }
+    
+    private static int dot( long item ) {
+        return (int) ( ( item >>> 32 ) & 0xFF );
+    }
+    
+    private static int origin( long item ) {
+        return (int) ( item & 0xFFFFFFFFL );
+    }
+    
+}
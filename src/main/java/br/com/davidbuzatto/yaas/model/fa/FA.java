@@ -19,13 +19,16 @@ package br.com.davidbuzatto.yaas.model.fa;
 import br.com.davidbuzatto.yaas.gui.ZoomFacility;
 import br.com.davidbuzatto.yaas.gui.fa.FASimulationStep;
 import br.com.davidbuzatto.yaas.model.AbstractGeometricForm;
+import br.com.davidbuzatto.yaas.util.ApplicationConstants;
 import br.com.davidbuzatto.yaas.util.CharacterConstants;
 import java.awt.Graphics2D;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -51,10 +54,25 @@ public class FA extends AbstractGeometricForm implements Cloneable {
     private transient boolean alphabetUpToDate;
     private transient boolean deltaUpToDate;
     private transient boolean eclosesUpToDate;
+    private transient boolean compiledDFAUpToDate;
+    private transient boolean bitsetNFAUpToDate;
     
     private transient Set<Character> alphabet;
     private transient Map<FAState, Map<Character, List<FAState>>> delta;
     private transient Map<FAState, Set<FAState>> ecloses;
+    private transient FACompiledDFA compiledDFA;
+    private transient FABitsetNFA bitsetNFA;
+    private transient FALazyDFA lazyDFA;
+    private transient FABitsetNFA lazyDFABase;
+    
+    // incremental index, maintained together with the delta
+    private transient Map<FAState, List<FATransition>> outgoing;
+    private transient Map<FAState, List<FATransition>> incoming;
+    private transient Map<FATransition, List<Character>> indexedSymbols;
+    private transient Map<FAState, Map<Character, Integer>> symbolCounts;
+    private transient Map<Character, Integer> alphabetCounts;
+    private transient int epsilonKeys;
+    private transient int nondeterministicKeys;
     
     private transient boolean transitionControlPointsVisible;
     
@@ -64,12 +82,78 @@ public class FA extends AbstractGeometricForm implements Cloneable {
         type = FAType.EMPTY;
     }
     
+    /**
+     * Creates a builder to construct a Finite Automaton with many states and
+     * transitions at once.
+     * 
+     * @return A new builder.
+     */
+    public static FABuilder builder() {
+        return new FABuilder();
+    }
+    
     public boolean accepts( String str ) {
-        return accepts( str, null );
+        return accepts( str, FAExecutionMode.AUTOMATIC );
     }
     
     public boolean accepts( String str, List<FASimulationStep> simulationSteps ) {
         
+        // no simulation requested: uses the fast execution engines
+        if ( simulationSteps == null ) {
+            return accepts( str, FAExecutionMode.AUTOMATIC );
+        }
+        
+        return acceptsWithStateSets( str, simulationSteps );
+        
+    }
+    
+    /**
+     * Decides if a string is accepted using a specific execution engine.
+     * 
+     * @param str The string to be tested.
+     * @param mode The execution engine to use.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str, FAExecutionMode mode ) {
+        
+        if ( !canExecute() ) {
+            return false;
+        }
+        
+        // compiled transition table when the automaton is deterministic,
+        // otherwise bitsets
+        if ( mode == FAExecutionMode.AUTOMATIC ) {
+            FACompiledDFA cDFA = getCompiledDFA();
+            if ( cDFA != null ) {
+                return cDFA.accepts( str );
+            }
+            mode = FAExecutionMode.BITSETS;
+        }
+        
+        switch ( mode ) {
+            
+            case BITSETS:
+                FABitsetNFA bNFA = getBitsetNFA();
+                if ( bNFA != null ) {
+                    return bNFA.accepts( str );
+                }
+                break;
+                
+            case LAZY_DFA:
+                FALazyDFA lDFA = getLazyDFA();
+                if ( lDFA != null ) {
+                    return lDFA.accepts( str );
+                }
+                break;
+                
+        }
+        
+        return acceptsWithStateSets( str, null );
+        
+    }
+    
+    private boolean acceptsWithStateSets( String str, List<FASimulationStep> simulationSteps ) {
+        
         if ( canExecute() ) {
             
             Map<FAState, Map<Character, List<FAState>>> delta = getDelta();
@@ -234,10 +318,13 @@ public class FA extends AbstractGeometricForm implements Cloneable {
                 initialState = state;
             }
             
+            ensureIndex();
+            indexState( state );
+            
         }
         
-        markAllCachesAsObsolete();
-        updateType();
+        markCompiledFormsAsObsolete();
+        refreshType();
         
     }
     
@@ -245,11 +332,14 @@ public class FA extends AbstractGeometricForm implements Cloneable {
         
         if ( transition != null ) {
             
+            ensureIndex();
+            indexState( transition.getOriginState() );
+            indexState( transition.getTargetState() );
+            
             FATransition tf = null;
             
-            for ( FATransition t : transitions ) {
-                if ( t.getOriginState() == transition.getOriginState() && 
-                        t.getTargetState() == transition.getTargetState() ) {
+            for ( FATransition t : outgoing.get( transition.getOriginState() ) ) {
+                if ( t.getTargetState() == transition.getTargetState() ) {
                     tf = t;
                     break;
                 }
@@ -258,13 +348,36 @@ public class FA extends AbstractGeometricForm implements Cloneable {
             if ( tf == null ) {
                 transition.setControlPointsVisible( transitionControlPointsVisible );
                 transitions.add( transition );
+                indexTransition( transition );
             } else {
                 tf.addSymbols( transition.getSymbols() );
+                reindexTransition( tf );
             }
             
         }
         
-        markAllCachesAsObsolete();
+        markCompiledFormsAsObsolete();
+        refreshType();
+        
+    }
+    
+    /**
+     * Adds the states and the already merged transitions of a builder,
+     * computing the type, the caches and the geometry only once.
+     */
+    void addAll( List<FAState> states, List<FATransition> transitions, FAState initialState ) {
+        
+        this.states.addAll( states );
+        this.transitions.addAll( transitions );
+        
+        if ( initialState != null ) {
+            this.initialState = initialState;
+        }
+        
+        for ( FATransition t : transitions ) {
+            t.setControlPointsVisible( transitionControlPointsVisible );
+        }
+        
         updateType();
         
     }
@@ -323,8 +436,9 @@ public class FA extends AbstractGeometricForm implements Cloneable {
         
         this.initialState = initialState;
         
-        markAllCachesAsObsolete();
-        updateType();
+        // the index doesn't depend on the initial state and the compiled
+        // forms verify it by themselves
+        refreshType();
         
     }
 
@@ -338,76 +452,94 @@ public class FA extends AbstractGeometricForm implements Cloneable {
     
     public void removeState( FAState state ) {
         
+        ensureIndex();
+        
         if ( initialState == state ) {
             initialState = null;
         }
         
         states.remove( state );
         
-        List<FATransition> ts = new ArrayList<>();
-        for ( FATransition t : transitions ) {
-            if ( t.getOriginState() == state || t.getTargetState() == state ) {
-                ts.add( t );
+        Set<FATransition> ts = new HashSet<>();
+        if ( outgoing.containsKey( state ) ) {
+            ts.addAll( outgoing.get( state ) );
+            ts.addAll( incoming.get( state ) );
+        }
+        
+        if ( !ts.isEmpty() ) {
+            transitions.removeIf( t -> ts.contains( t ) );
+            for ( FATransition t : ts ) {
+                unindexTransition( t );
             }
         }
         
-        for ( FATransition t : ts ) {
-            transitions.remove( t );
+        unindexState( state );
+        
+        markCompiledFormsAsObsolete();
+        refreshType();
+        
+    }
+    
+    /**
+     * Removes a collection of states and all of their transitions at once,
+     * updating the type and the caches only one time.
+     * 
+     * @param statesToRemove The states to be removed.
+     */
+    public void removeStates( Collection<FAState> statesToRemove ) {
+        
+        Set<FAState> toRemove = new HashSet<>( statesToRemove );
+        
+        if ( toRemove.contains( initialState ) ) {
+            initialState = null;
         }
         
-        markAllCachesAsObsolete();
+        states.removeAll( toRemove );
+        transitions.removeIf( t -> toRemove.contains( t.getOriginState() ) || 
+                toRemove.contains( t.getTargetState() ) );
+        
         updateType();
         
     }
     
     public void removeTransition( FATransition transition ) {
-        transitions.remove( transition );
-        markAllCachesAsObsolete();
-        updateType();
+        
+        ensureIndex();
+        
+        if ( transitions.remove( transition ) ) {
+            unindexTransition( transition );
+        }
+        
+        markCompiledFormsAsObsolete();
+        refreshType();
+        
     }
     
+    /**
+     * Recomputes the type and rebuilds all the caches from scratch. Must be
+     * used after changing the symbols of a transition directly, since these
+     * changes are not tracked by the incremental index.
+     */
     public void updateType() {
+        markAllCachesAsObsolete();
+        refreshType();
+    }
+    
+    /**
+     * Updates the type using the determinism counters of the index.
+     */
+    private void refreshType() {
         
         if ( states.isEmpty() ) {
             type = FAType.EMPTY;
             return;
         }
         
-        Map<FAState, Map<Character, Integer>> counts = new HashMap<>();
-        boolean epsilon = false;
-        boolean nondeterminism = false;
+        ensureIndex();
         
-        for ( FATransition t : transitions ) {
-            
-            Map<Character, Integer> count = counts.get( t.getOriginState() );
-            if ( count == null ) {
-                count = new HashMap<>();
-                counts.put( t.getOriginState(), count );
-            }
-            
-            for ( char c : t.getSymbols() ) {
-                Integer v = count.get( c );
-                count.put( c, v == null ? 1 : v+1 );
-            }
-            
-        }
-        
-        for ( Map.Entry<FAState, Map<Character, Integer>> ec : counts.entrySet() ) {
-            for ( Map.Entry<Character, Integer> e : ec.getValue().entrySet() ) {
-                if ( e.getKey().equals( CharacterConstants.EMPTY_STRING ) ) {
-                    epsilon = true;
-                } else if ( e.getValue().compareTo( 1 ) > 0 ) {
-                    nondeterminism = true;
-                }
-            }
-            if ( epsilon && nondeterminism ) {
-                break;
-            }
-        }
-        
-        if ( epsilon ) {
+        if ( epsilonKeys > 0 ) {
             type = FAType.ENFA;
-        } else if ( nondeterminism ) {
+        } else if ( nondeterministicKeys > 0 ) {
             type = FAType.NFA;
         } else {
             type = FAType.DFA;
@@ -432,18 +564,9 @@ public class FA extends AbstractGeometricForm implements Cloneable {
     public Set<Character> getAlphabet() {
         
         if ( alphabet == null || !alphabetUpToDate ) {
-            
+            ensureIndex();
             alphabetUpToDate = true;
-            alphabet = new TreeSet<>();
-        
-            for ( FATransition t : transitions ) {
-                for ( char c : t.getSymbols() ) {
-                    if ( c != CharacterConstants.EMPTY_STRING ) {
-                        alphabet.add( c );
-                    }
-                }
-            }
-        
+            alphabet = new TreeSet<>( alphabetCounts.keySet() );
         }
         
         return alphabet;
@@ -451,31 +574,286 @@ public class FA extends AbstractGeometricForm implements Cloneable {
     }
     
     public Map<FAState, Map<Character, List<FAState>>> getDelta() {
+        ensureIndex();
+        return delta;
+    }
+    
+    /**
+     * Builds the delta and the rest of the incremental index if they are
+     * obsolete. After that, the mutation methods keep them updated visiting
+     * only the affected states and transitions.
+     */
+    private void ensureIndex() {
         
         if ( delta == null || !deltaUpToDate ) {
             
             deltaUpToDate = true;
             
-            delta = new TreeMap<>();
+            // the caches derived from the index are rebuilt on demand
+            alphabetUpToDate = false;
+            eclosesUpToDate = false;
+            
+            delta = new LinkedHashMap<>();
+            outgoing = new HashMap<>();
+            incoming = new HashMap<>();
+            indexedSymbols = new HashMap<>();
+            symbolCounts = new HashMap<>();
+            alphabetCounts = new HashMap<>();
+            epsilonKeys = 0;
+            nondeterministicKeys = 0;
+            
             for ( FAState s : states ) {
-                delta.put( s, new TreeMap<>() );
+                indexState( s );
             }
-
+            
             for ( FATransition t : transitions ) {
-                Map<Character, List<FAState>> mq = delta.get( t.getOriginState() );
-                for ( Character sy : t.getSymbols() ) {
-                    List<FAState> li = mq.get( sy );
-                    if ( li == null ) {
-                        li = new ArrayList<>();
-                        mq.put( sy, li );
+                indexTransition( t );
+            }
+            
+        }
+        
+    }
+    
+    private void indexState( FAState state ) {
+        
+        if ( !delta.containsKey( state ) ) {
+            
+            delta.put( state, new TreeMap<>() );
+            outgoing.put( state, new ArrayList<>() );
+            incoming.put( state, new ArrayList<>() );
+            symbolCounts.put( state, new HashMap<>() );
+            
+            if ( eclosesUpToDate ) {
+                Set<FAState> eclose = new HashSet<>();
+                eclose.add( state );
+                ecloses.put( state, eclose );
+            }
+            
+        }
+        
+    }
+    
+    private void unindexState( FAState state ) {
+        
+        delta.remove( state );
+        outgoing.remove( state );
+        incoming.remove( state );
+        symbolCounts.remove( state );
+        
+        if ( eclosesUpToDate ) {
+            ecloses.remove( state );
+        }
+        
+    }
+    
+    private void indexTransition( FATransition transition ) {
+        
+        FAState origin = transition.getOriginState();
+        FAState target = transition.getTargetState();
+        
+        indexState( origin );
+        indexState( target );
+        outgoing.get( origin ).add( transition );
+        incoming.get( target ).add( transition );
+        
+        // the indexed symbols are a copy, so a later removal subtracts
+        // exactly what was added
+        List<Character> symbols = new ArrayList<>( transition.getSymbols() );
+        indexedSymbols.put( transition, symbols );
+        addSymbolsToIndex( origin, target, symbols );
+        
+    }
+    
+    private void reindexTransition( FATransition transition ) {
+        
+        List<Character> oldSymbols = indexedSymbols.get( transition );
+        List<Character> newSymbols = new ArrayList<>( transition.getSymbols() );
+        
+        List<Character> removed = new ArrayList<>( oldSymbols );
+        removed.removeAll( newSymbols );
+        List<Character> added = new ArrayList<>( newSymbols );
+        added.removeAll( oldSymbols );
+        
+        indexedSymbols.put( transition, newSymbols );
+        removeSymbolsFromIndex( transition.getOriginState(), 
+                transition.getTargetState(), removed );
+        addSymbolsToIndex( transition.getOriginState(), 
+                transition.getTargetState(), added );
+        
+    }
+    
+    private void unindexTransition( FATransition transition ) {
+        
+        List<Character> symbols = indexedSymbols.remove( transition );
+        
+        if ( symbols != null ) {
+            outgoing.get( transition.getOriginState() ).remove( transition );
+            incoming.get( transition.getTargetState() ).remove( transition );
+            removeSymbolsFromIndex( transition.getOriginState(), 
+                    transition.getTargetState(), symbols );
+        }
+        
+    }
+    
+    private void addSymbolsToIndex( FAState origin, FAState target, List<Character> symbols ) {
+        
+        Map<Character, Integer> counts = symbolCounts.get( origin );
+        Map<Character, List<FAState>> mq = delta.get( origin );
+        
+        for ( Character sy : symbols ) {
+            
+            Integer v = counts.get( sy );
+            v = v == null ? 1 : v+1;
+            counts.put( sy, v );
+            
+            List<FAState> li = mq.get( sy );
+            if ( li == null ) {
+                li = new ArrayList<>();
+                mq.put( sy, li );
+            }
+            li.add( target );
+            
+            if ( sy.equals( CharacterConstants.EMPTY_STRING ) ) {
+                
+                if ( v == 1 ) {
+                    epsilonKeys++;
+                }
+                
+                // every eclose that contains the origin now contains the
+                // eclose of the target too
+                if ( eclosesUpToDate ) {
+                    Set<FAState> targetEclose = ecloses.get( target );
+                    for ( Set<FAState> eclose : ecloses.values() ) {
+                        if ( eclose != targetEclose && eclose.contains( origin ) ) {
+                            eclose.addAll( targetEclose );
+                        }
                     }
-                    li.add( t.getTargetState() );
                 }
+                
+            } else {
+                
+                if ( v == 2 ) {
+                    nondeterministicKeys++;
+                }
+                
+                Integer a = alphabetCounts.get( sy );
+                alphabetCounts.put( sy, a == null ? 1 : a+1 );
+                if ( a == null && alphabetUpToDate ) {
+                    alphabet.add( sy );
+                }
+                
             }
             
         }
         
-        return delta;
+    }
+    
+    private void removeSymbolsFromIndex( FAState origin, FAState target, List<Character> symbols ) {
+        
+        Map<Character, Integer> counts = symbolCounts.get( origin );
+        Map<Character, List<FAState>> mq = delta.get( origin );
+        
+        for ( Character sy : symbols ) {
+            
+            int v = counts.get( sy ) - 1;
+            if ( v == 0 ) {
+                counts.remove( sy );
+            } else {
+                counts.put( sy, v );
+            }
+            
+            List<FAState> li = mq.get( sy );
+            li.remove( target );
+            if ( li.isEmpty() ) {
+                mq.remove( sy );
+            }
+            
+            if ( sy.equals( CharacterConstants.EMPTY_STRING ) ) {
+                
+                if ( v == 0 ) {
+                    epsilonKeys--;
+                }
+                
+                // removing an edge can split closures, they are rebuilt
+                eclosesUpToDate = false;
+                
+            } else {
+                
+                if ( v == 1 ) {
+                    nondeterministicKeys--;
+                }
+                
+                int a = alphabetCounts.get( sy ) - 1;
+                if ( a == 0 ) {
+                    alphabetCounts.remove( sy );
+                    if ( alphabetUpToDate ) {
+                        alphabet.remove( sy );
+                    }
+                } else {
+                    alphabetCounts.put( sy, a );
+                }
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Gets the compiled execution form of this automaton, building it if
+     * needed.
+     * 
+     * @return The compiled DFA or null if this automaton is not deterministic.
+     */
+    public FACompiledDFA getCompiledDFA() {
+        
+        if ( !compiledDFAUpToDate || 
+                ( compiledDFA != null && compiledDFA.getInitialState() != initialState ) ) {
+            compiledDFAUpToDate = true;
+            compiledDFA = FACompiledDFA.compile( this );
+        }
+        
+        return compiledDFA;
+        
+    }
+    
+    /**
+     * Gets the bitset execution form of this automaton, building it if
+     * needed.
+     * 
+     * @return The bitset NFA or null if this automaton can't be executed.
+     */
+    public FABitsetNFA getBitsetNFA() {
+        
+        if ( !bitsetNFAUpToDate || 
+                ( bitsetNFA != null && bitsetNFA.getInitialState() != initialState ) ) {
+            bitsetNFAUpToDate = true;
+            bitsetNFA = FABitsetNFA.compile( this );
+        }
+        
+        return bitsetNFA;
+        
+    }
+    
+    /**
+     * Gets the lazy DFA execution form of this automaton. The cached subset
+     * states are kept between calls while the automaton is not changed.
+     * 
+     * @return The lazy DFA or null if this automaton can't be executed.
+     */
+    public FALazyDFA getLazyDFA() {
+        
+        FABitsetNFA bNFA = getBitsetNFA();
+        
+        if ( bNFA == null ) {
+            lazyDFA = null;
+        } else if ( lazyDFA == null || lazyDFABase != bNFA ) {
+            lazyDFA = new FALazyDFA( bNFA, 
+                    ApplicationConstants.FINITE_AUTOMATON_LAZY_DFA_MAX_STATES );
+        }
+        
+        lazyDFABase = bNFA;
+        return lazyDFA;
         
     }
     
@@ -501,7 +879,7 @@ public class FA extends AbstractGeometricForm implements Cloneable {
             FAState s, 
             Map<FAState, Map<Character, List<FAState>>> delta ) {
         
-        Set<FAState> eclose = new TreeSet<>();
+        Set<FAState> eclose = new HashSet<>();
         Set<FAState> visited = new HashSet<>();
         
         discoverEcloseR( s, eclose, visited, delta );
@@ -651,6 +1029,13 @@ public class FA extends AbstractGeometricForm implements Cloneable {
         alphabetUpToDate = false;
         deltaUpToDate = false;
         eclosesUpToDate = false;
+        compiledDFAUpToDate = false;
+        bitsetNFAUpToDate = false;
+    }
+    
+    private void markCompiledFormsAsObsolete() {
+        compiledDFAUpToDate = false;
+        bitsetNFAUpToDate = false;
     }
     
     public void merge( FA fa ) {
@@ -767,15 +1152,18 @@ public class FA extends AbstractGeometricForm implements Cloneable {
         
         FA c = (FA) super.clone();
         Map<FAState, FAState> ref = new HashMap<>();
-    
+        
+        // the caches are shared after super.clone()
+        c.markAllCachesAsObsolete();
         c.states = new ArrayList<>();
+        c.transitions = new ArrayList<>();
+        
         for ( FAState s : states ) {
             FAState n = s.clone();
             c.addState( n );
             ref.put( s, n );
         }
         
-        c.transitions = new ArrayList<>();
         for ( FATransition t : transitions ) {
             FATransition n = t.clone();
             n.setOriginState( ref.get( t.getOriginState() ) );
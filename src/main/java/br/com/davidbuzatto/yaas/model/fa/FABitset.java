@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of state numbers stored as a bitset, with a cached hash.
+ * Used as a key when interning sets of states.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public final class FABitset {
+    
+    private final long[] words;
+    private final int hash;
+    
+    /**
+     * Creates a new bitset. The array is not copied, so it must not be
+     * changed afterwards.
+     * 
+     * @param words The bitset words.
+     */
+    public FABitset( long[] words ) {
+        this.words = words;
+        this.hash = Arrays.hashCode( words );
+    }
+    
+    public long[] getWords() {
+        return words;
+    }
+    
+    public boolean contains( int index ) {
+        return ( words[index >>> 6] & ( 1L << index ) ) != 0;
+    }
+    
+    public boolean isEmpty() {
+        for ( long w : words ) {
+            if ( w != 0L ) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( obj == null ) {
+            return false;
+        }
+        if ( getClass() != obj.getClass() ) {
+            return false;
+        }
+        final FABitset other = (FABitset) obj;
+        return hash == other.hash && Arrays.equals( words, other.words );
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder( "{" );
+        boolean first = true;
+        for ( int w = 0; w < words.length; w++ ) {
+            long bits = words[w];
+            while ( bits != 0 ) {
+                if ( !first ) {
+                    sb.append( ", " );
+                }
+                sb.append( ( w << 6 ) + Long.numberOfTrailingZeros( bits ) );
+                bits &= bits - 1;
+                first = false;
+            }
+        }
+        return sb.append( "}" ).toString();
+    }
+    
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitset execution form of a (epsilon-)Nondeterministic Finite Automaton.
+ *
+ * The states are numbered densely and every set of states is represented as
+ * a long[] bitset. The epsilon-closures are precomputed and folded into the
+ * successor sets, so each input symbol is processed with word ORs only,
+ * without allocations.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class FABitsetNFA {
+
+    private final FAState[] states;
+    private final FAState initialState;
+    private final int words;
+
+    private final char minSymbol;
+    private final int[] symbolMap;
+
+    // eclose( initial state )
+    private final long[] initialSet;
+
+    // successors[state][symbol] = union of the eclose of each target,
+    // null if there is no transition
+    private final long[][][] successors;
+
+    private FABitsetNFA( FAState[] states, FAState initialState, int words,
+            char minSymbol, int[] symbolMap, long[] initialSet,
+            long[][][] successors ) {
+        this.states = states;
+        this.initialState = initialState;
+        this.words = words;
+        this.minSymbol = minSymbol;
+        this.symbolMap = symbolMap;
+        this.initialSet = initialSet;
+        this.successors = successors;
+    }
+
+    /**
+     * Compiles a Finite Automaton into its bitset form.
+     *
+     * @param fa The Finite Automaton to be compiled.
+     * @return The compiled automaton or null if it can't be executed.
+     */
+    public static FABitsetNFA compile( FA fa ) {
+
+        FAState initialState = fa.getInitialState();
+
+        if ( initialState == null ) {
+            return null;
+        }
+
+        FAState[] states = fa.getStates().toArray( new FAState[0] );
+        int n = states.length;
+        int words = ( n + 63 ) >>> 6;
+
+        Map<FAState, Integer> index = new HashMap<>();
+        for ( int i = 0; i < n; i++ ) {
+            index.put( states[i], i );
+        }
+
+        Integer initial = index.get( initialState );
+        if ( initial == null ) {
+            return null;
+        }
+
+        char min = Character.MAX_VALUE;
+        char max = Character.MIN_VALUE;
+        boolean hasSymbols = false;
+
+        List<List<Integer>> epsilonTargets = new ArrayList<>();
+        for ( int i = 0; i < n; i++ ) {
+            epsilonTargets.add( new ArrayList<>() );
+        }
+
+        for ( FATransition t : fa.getTransitions() ) {
+
+            Integer o = index.get( t.getOriginState() );
+            Integer d = index.get( t.getTargetState() );
+
+            if ( o == null || d == null ) {
+                return null;
+            }
+
+            for ( char c : t.getSymbols() ) {
+                if ( c == CharacterConstants.EMPTY_STRING ) {
+                    epsilonTargets.get( o ).add( d );
+                } else {
+                    if ( c < min ) {
+                        min = c;
+                    }
+                    if ( c > max ) {
+                        max = c;
+                    }
+                    hasSymbols = true;
+                }
+            }
+
+        }
+
+        int[] symbolMap;
+        int symbolCount = 0;
+
+        if ( hasSymbols ) {
+            symbolMap = new int[max - min + 1];
+            Arrays.fill( symbolMap, -1 );
+            for ( FATransition t : fa.getTransitions() ) {
+                for ( char c : t.getSymbols() ) {
+                    if ( c != CharacterConstants.EMPTY_STRING &&
+                            symbolMap[c - min] == -1 ) {
+                        symbolMap[c - min] = symbolCount++;
+                    }
+                }
+            }
+        } else {
+            min = 0;
+            symbolMap = new int[0];
+        }
+
+        // epsilon-closures
+        long[][] ecloses = new long[n][];
+        Deque<Integer> stack = new ArrayDeque<>();
+        for ( int i = 0; i < n; i++ ) {
+            long[] eclose = new long[words];
+            eclose[i >>> 6] |= 1L << i;
+            stack.push( i );
+            while ( !stack.isEmpty() ) {
+                for ( int d : epsilonTargets.get( stack.pop() ) ) {
+                    if ( ( eclose[d >>> 6] & ( 1L << d ) ) == 0 ) {
+                        eclose[d >>> 6] |= 1L << d;
+                        stack.push( d );
+                    }
+                }
+            }
+            ecloses[i] = eclose;
+        }
+
+        // successors with the epsilon-closures already applied
+        long[][][] successors = new long[n][symbolCount][];
+        for ( FATransition t : fa.getTransitions() ) {
+            int o = index.get( t.getOriginState() );
+            int d = index.get( t.getTargetState() );
+            for ( char c : t.getSymbols() ) {
+                if ( c != CharacterConstants.EMPTY_STRING ) {
+                    int sy = symbolMap[c - min];
+                    long[] target = successors[o][sy];
+                    if ( target == null ) {
+                        target = new long[words];
+                        successors[o][sy] = target;
+                    }
+                    long[] eclose = ecloses[d];
+                    for ( int w = 0; w < words; w++ ) {
+                        target[w] |= eclose[w];
+                    }
+                }
+            }
+        }
+
+        return new FABitsetNFA( states, initialState, words, min, symbolMap,
+                ecloses[initial], successors );
+
+    }
+
+    /**
+     * Runs the compiled automaton.
+     *
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+
+        long[] current = Arrays.copyOf( initialSet, words );
+        long[] next = new long[words];
+        int length = str.length();
+
+        for ( int i = 0; i < length; i++ ) {
+
+            int sy = getSymbolIndex( str.charAt( i ) );
+
+            // unknown symbol or dead-end
+            if ( sy == -1 || !step( current, sy, next ) ) {
+                return false;
+            }
+
+            long[] t = current;
+            current = next;
+            next = t;
+
+        }
+
+        return containsFinal( current );
+
+    }
+
+    /**
+     * Computes the set of states reached from a set of states consuming one
+     * symbol.
+     *
+     * @param current The current set of states.
+     * @param symbolIndex The index of the consumed symbol.
+     * @param next Where the reached set will be stored (overwritten).
+     * @return true if the reached set is not empty, false otherwise.
+     */
+    public boolean step( long[] current, int symbolIndex, long[] next ) {
+
+        Arrays.fill( next, 0L );
+        long any = 0L;
+
+        for ( int w = 0; w < words; w++ ) {
+            long bits = current[w];
+            while ( bits != 0 ) {
+                int s = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+                long[] row = successors[s][symbolIndex];
+                if ( row != null ) {
+                    for ( int k = 0; k < words; k++ ) {
+                        next[k] |= row[k];
+                        any |= row[k];
+                    }
+                }
+                bits &= bits - 1;
+            }
+        }
+
+        return any != 0L;
+
+    }
+
+    /**
+     * Gets the dense index of a symbol.
+     *
+     * @param c The symbol.
+     * @return The index or -1 if the symbol is not in the alphabet.
+     */
+    public int getSymbolIndex( char c ) {
+        int p = c - minSymbol;
+        if ( p < 0 || p >= symbolMap.length ) {
+            return -1;
+        }
+        return symbolMap[p];
+    }
+
+    public int getSymbolCount() {
+        return successors.length == 0 ? 0 : successors[0].length;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * @return A copy of the epsilon-closure of the initial state.
+     */
+    public long[] getInitialSet() {
+        return Arrays.copyOf( initialSet, words );
+    }
+
+    /**
+     * Verifies if a set of states contains at least one final state.
+     *
+     * @param set The bitset to be verified.
+     * @return true if at least one state is final, false otherwise.
+     */
+    public boolean containsFinal( long[] set ) {
+        for ( int w = 0; w < words; w++ ) {
+            long bits = set[w];
+            while ( bits != 0 ) {
+                int s = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+                // read from the state itself, the final flag can be toggled
+                // without invalidating the automaton caches
+                if ( states[s].isFinal() ) {
+                    return true;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the initial state used in the compilation. Used to detect if the
+     * compiled form is stale.
+     *
+     * @return The initial state.
+     */
+    public FAState getInitialState() {
+        return initialState;
+    }
+
+}
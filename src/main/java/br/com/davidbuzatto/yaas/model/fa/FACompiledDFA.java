@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled execution form of a Deterministic Finite Automaton.
+ *
+ * The states are numbered densely and the transition function is stored in
+ * a int[state][symbol] table, so each input symbol costs two array lookups
+ * without boxing or map traversals.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class FACompiledDFA {
+
+    private final FAState[] states;
+    private final FAState initialState;
+    private final int initial;
+
+    // maps (c - minSymbol) to the symbol column, -1 if not in the alphabet
+    private final char minSymbol;
+    private final int[] symbolMap;
+
+    // table[state][symbol] = target state or -1 (implicit dead state)
+    private final int[][] table;
+
+    private FACompiledDFA( FAState[] states, FAState initialState, int initial,
+            char minSymbol, int[] symbolMap, int[][] table ) {
+        this.states = states;
+        this.initialState = initialState;
+        this.initial = initial;
+        this.minSymbol = minSymbol;
+        this.symbolMap = symbolMap;
+        this.table = table;
+    }
+
+    /**
+     * Compiles a Finite Automaton into a transition table.
+     *
+     * @param fa The Finite Automaton to be compiled.
+     * @return The compiled DFA or null if the automaton can't be executed or
+     * is not deterministic (has epsilon-transitions or more than one target
+     * for a state and symbol).
+     */
+    public static FACompiledDFA compile( FA fa ) {
+
+        FAState initialState = fa.getInitialState();
+
+        if ( initialState == null ) {
+            return null;
+        }
+
+        List<FAState> faStates = fa.getStates();
+        FAState[] states = faStates.toArray( new FAState[0] );
+        Map<FAState, Integer> index = new HashMap<>();
+        for ( int i = 0; i < states.length; i++ ) {
+            index.put( states[i], i );
+        }
+
+        Integer initial = index.get( initialState );
+        if ( initial == null ) {
+            return null;
+        }
+
+        char min = Character.MAX_VALUE;
+        char max = Character.MIN_VALUE;
+        boolean hasSymbols = false;
+
+        for ( FATransition t : fa.getTransitions() ) {
+            for ( char c : t.getSymbols() ) {
+                if ( c == CharacterConstants.EMPTY_STRING ) {
+                    return null;
+                }
+                if ( c < min ) {
+                    min = c;
+                }
+                if ( c > max ) {
+                    max = c;
+                }
+                hasSymbols = true;
+            }
+        }
+
+        int[] symbolMap;
+        int symbolCount = 0;
+
+        if ( hasSymbols ) {
+            symbolMap = new int[max - min + 1];
+            Arrays.fill( symbolMap, -1 );
+            for ( FATransition t : fa.getTransitions() ) {
+                for ( char c : t.getSymbols() ) {
+                    if ( symbolMap[c - min] == -1 ) {
+                        symbolMap[c - min] = symbolCount++;
+                    }
+                }
+            }
+        } else {
+            min = 0;
+            symbolMap = new int[0];
+        }
+
+        int[][] table = new int[states.length][symbolCount];
+        for ( int[] row : table ) {
+            Arrays.fill( row, -1 );
+        }
+
+        for ( FATransition t : fa.getTransitions() ) {
+
+            Integer o = index.get( t.getOriginState() );
+            Integer d = index.get( t.getTargetState() );
+
+            // transitions pointing to states outside the automaton
+            if ( o == null || d == null ) {
+                return null;
+            }
+
+            for ( char c : t.getSymbols() ) {
+                int sy = symbolMap[c - min];
+                if ( table[o][sy] != -1 && table[o][sy] != d ) {
+                    // nondeterminism
+                    return null;
+                }
+                table[o][sy] = d;
+            }
+
+        }
+
+        return new FACompiledDFA( states, initialState, initial,
+                min, symbolMap, table );
+
+    }
+
+    /**
+     * Runs the compiled automaton.
+     *
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+
+        int current = initial;
+        int length = str.length();
+        int mapLength = symbolMap.length;
+
+        for ( int i = 0; i < length; i++ ) {
+
+            int p = str.charAt( i ) - minSymbol;
+            if ( p < 0 || p >= mapLength ) {
+                return false;
+            }
+
+            int sy = symbolMap[p];
+            if ( sy == -1 ) {
+                return false;
+            }
+
+            current = table[current][sy];
+            if ( current == -1 ) {
+                return false;
+            }
+
+        }
+
+        // the final flag is read from the state itself since it can be
+        // toggled without invalidating the automaton caches
+        return states[current].isFinal();
+
+    }
+
+    /**
+     * Gets the initial state used in the compilation. Used to detect if the
+     * compiled form is stale.
+     *
+     * @return The initial state.
+     */
+    public FAState getInitialState() {
+        return initialState;
+    }
+
+}
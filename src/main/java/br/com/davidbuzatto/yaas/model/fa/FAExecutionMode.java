@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa;
+
+/**
+ * Execution engine used by a Finite Automaton to decide the membership of a
+ * string when no simulation steps are requested.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public enum FAExecutionMode {
+    
+    /**
+     * Compiled transition table for DFAs, bitsets otherwise.
+     */
+    AUTOMATIC,
+    
+    /**
+     * Sets of states, the same algorithm used by the simulation.
+     */
+    STATE_SETS,
+    
+    /**
+     * Bitset subset simulation.
+     */
+    BITSETS,
+    
+    /**
+     * Bitset subset simulation with memoized subset transitions (lazy DFA).
+     */
+    LAZY_DFA
+    
+}
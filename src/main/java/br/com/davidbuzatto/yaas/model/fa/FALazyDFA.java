@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy (on-the-fly) DFA execution of a Finite Automaton.
+ * 
+ * The subset construction is done on demand while strings are processed:
+ * each discovered set of states becomes a cached DFA state and each computed
+ * (set, symbol) -> set transition is memoized, so repeated runs approach the
+ * speed of a real DFA without building it up front. The cache is bounded:
+ * when it fills, it is flushed and rebuilt from the current set.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class FALazyDFA {
+    
+    private static final int UNKNOWN = -2;
+    private static final int DEAD = -1;
+    
+    private final FABitsetNFA nfa;
+    private final int maxStates;
+    private final int symbolCount;
+    
+    private final Map<FABitset, Integer> ids;
+    private final List<FABitset> sets;
+    private final List<int[]> transitions;
+    
+    private int flushes;
+    
+    /**
+     * Creates a lazy DFA over the bitset form of an automaton.
+     * 
+     * @param nfa The bitset form of the automaton.
+     * @param maxStates Maximum quantity of cached DFA states.
+     */
+    public FALazyDFA( FABitsetNFA nfa, int maxStates ) {
+        this.nfa = nfa;
+        this.maxStates = Math.max( 2, maxStates );
+        this.symbolCount = nfa.getSymbolCount();
+        this.ids = new HashMap<>();
+        this.sets = new ArrayList<>();
+        this.transitions = new ArrayList<>();
+    }
+    
+    /**
+     * Runs the automaton, discovering and caching new DFA states as needed.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public synchronized boolean accepts( String str ) {
+        
+        int current = intern( nfa.getInitialSet() );
+        int length = str.length();
+        
+        for ( int i = 0; i < length; i++ ) {
+            
+            int sy = nfa.getSymbolIndex( str.charAt( i ) );
+            if ( sy == -1 ) {
+                return false;
+            }
+            
+            int next = transitions.get( current )[sy];
+            
+            if ( next == UNKNOWN ) {
+                
+                long[] target = new long[nfa.getWords()];
+                
+                if ( nfa.step( sets.get( current ).getWords(), sy, target ) ) {
+                    
+                    FABitset targetSet = new FABitset( target );
+                    Integer id = ids.get( targetSet );
+                    
+                    if ( id == null ) {
+                        if ( sets.size() >= maxStates ) {
+                            // cache full: keeps only the current state
+                            FABitset currentSet = sets.get( current );
+                            flush();
+                            current = intern( currentSet.getWords() );
+                        }
+                        id = add( targetSet );
+                    }
+                    
+                    next = id;
+                    
+                } else {
+                    next = DEAD;
+                }
+                
+                transitions.get( current )[sy] = next;
+                
+            }
+            
+            if ( next == DEAD ) {
+                return false;
+            }
+            
+            current = next;
+            
+        }
+        
+        return nfa.containsFinal( sets.get( current ).getWords() );
+        
+    }
+    
+    /**
+     * Discards all cached states and transitions.
+     */
+    public synchronized void flush() {
+        ids.clear();
+        sets.clear();
+        transitions.clear();
+        flushes++;
+    }
+    
+    /**
+     * @return The quantity of DFA states currently cached.
+     */
+    public synchronized int getCachedStates() {
+        return sets.size();
+    }
+    
+    /**
+     * @return How many times the cache was flushed.
+     */
+    public synchronized int getFlushes() {
+        return flushes;
+    }
+    
+    private int intern( long[] words ) {
+        FABitset set = new FABitset( words );
+        Integer id = ids.get( set );
+        return id == null ? add( set ) : id;
+    }
+    
+    private int add( FABitset set ) {
+        int id = sets.size();
+        int[] row = new int[symbolCount];
+        Arrays.fill( row, UNKNOWN );
+        sets.add( set );
+        transitions.add( row );
+        ids.put( set, id );
+        return id;
+    }
+    
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa.algorithms;
+
+import br.com.davidbuzatto.yaas.model.fa.FA;
+import br.com.davidbuzatto.yaas.model.fa.FAState;
+import br.com.davidbuzatto.yaas.model.fa.FATransition;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes, for a whole DFA, which pairs of states are distinguishable
+ * (table filling method) and the shortest string that distinguishes each
+ * pair.
+ * 
+ * The pairs are marked by a backward breadth-first propagation over the
+ * reverse transition relation: starting from the pairs distinguished by the
+ * empty string (one final state and one non-final state), a pair (p', q') is
+ * marked when p' and q' go to an already marked pair (p, q) with the same
+ * symbol. Each pair is processed once, so the table is built in O(k.n^2)
+ * time, n being the number of states and k the size of the alphabet, and
+ * each query is answered in O(1).
+ * 
+ * Partial DFAs are handled with an implicit dead state.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class DFADistinguishabilityTable {
+    
+    private static final int UNMARKED = -1;
+    
+    // there is no next pair, the pair is distinguished by the empty string
+    private static final int EMPTY_STRING = -2;
+    
+    // largest array that the virtual machines can allocate
+    private static final long MAX_PAIRS = Integer.MAX_VALUE - 8;
+    
+    private final Map<FAState, Integer> index;
+    private final int size;
+    
+    // for each marked pair, the first symbol of the shortest distinguishing
+    // string and the pair reached with this symbol
+    private final int[] nextPair;
+    private final char[] firstSymbol;
+    
+    public DFADistinguishabilityTable( FA dfa ) throws IllegalArgumentException {
+        
+        FACommon.validateDFA( dfa );
+        
+        List<FAState> states = dfa.getStates();
+        int n = states.size();
+        int dead = n;
+        size = n + 1;
+        
+        // one entry for each pair of states, including the dead state
+        long pairCount = (long) size * ( size - 1 ) / 2;
+        if ( pairCount > MAX_PAIRS ) {
+            throw new IllegalArgumentException( String.format( 
+                    "The DFA has too many states (%d) to build the distinguishability table: "
+                    + "%d pairs of states exceed the limit of %d.", n, pairCount, MAX_PAIRS ) );
+        }
+        
+        index = new HashMap<>();
+        for ( int i = 0; i < n; i++ ) {
+            index.put( states.get( i ), i );
+        }
+        
+        char[] alphabet = new char[dfa.getAlphabet().size()];
+        Map<Character, Integer> symbolIndex = new HashMap<>();
+        int k = 0;
+        for ( char c : dfa.getAlphabet() ) {
+            symbolIndex.put( c, k );
+            alphabet[k++] = c;
+        }
+        
+        // total transition function
+        int[][] table = new int[size][k];
+        for ( int[] row : table ) {
+            Arrays.fill( row, dead );
+        }
+        for ( FATransition t : dfa.getTransitions() ) {
+            int o = index.get( t.getOriginState() );
+            int d = index.get( t.getTargetState() );
+            for ( char c : t.getSymbols() ) {
+                table[o][symbolIndex.get( c )] = d;
+            }
+        }
+        
+        // reverse transition relation
+        int[][] predStart = new int[k][size+1];
+        int[][] predList = new int[k][size];
+        for ( int a = 0; a < k; a++ ) {
+            for ( int s = 0; s < size; s++ ) {
+                predStart[a][table[s][a]+1]++;
+            }
+            for ( int t = 0; t < size; t++ ) {
+                predStart[a][t+1] += predStart[a][t];
+            }
+            int[] fill = Arrays.copyOf( predStart[a], size );
+            for ( int s = 0; s < size; s++ ) {
+                predList[a][fill[table[s][a]]++] = s;
+            }
+        }
+        
+        int pairs = (int) pairCount;
+        nextPair = new int[pairs];
+        firstSymbol = new char[pairs];
+        Arrays.fill( nextPair, UNMARKED );
+        
+        int[] queue = new int[pairs];
+        int head = 0;
+        int tail = 0;
+        
+        // distinguished by the empty string
+        for ( int p = 0; p < size; p++ ) {
+            for ( int q = p+1; q < size; q++ ) {
+                if ( isFinal( states, p ) != isFinal( states, q ) ) {
+                    int pair = pairIndex( p, q );
+                    nextPair[pair] = EMPTY_STRING;
+                    queue[tail++] = pair;
+                }
+            }
+        }
+        
+        // backward propagation. the breadth-first order guarantees that the
+        // distinguishing strings are the shortest ones
+        while ( head < tail ) {
+            
+            int pair = queue[head++];
+            int q = pairSecond( pair );
+            int p = (int) ( pair - (long) q * ( q - 1 ) / 2 );
+            
+            for ( int a = 0; a < k; a++ ) {
+                for ( int i = predStart[a][p]; i < predStart[a][p+1]; i++ ) {
+                    int pp = predList[a][i];
+                    for ( int j = predStart[a][q]; j < predStart[a][q+1]; j++ ) {
+                        int pq = predList[a][j];
+                        if ( pp != pq ) {
+                            int prev = pairIndex( pp, pq );
+                            if ( nextPair[prev] == UNMARKED ) {
+                                nextPair[prev] = pair;
+                                firstSymbol[prev] = alphabet[a];
+                                queue[tail++] = prev;
+                            }
+                        }
+                    }
+                }
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Verifies if two states are distinguishable.
+     * 
+     * @param s1 One state of the DFA.
+     * @param s2 Another state of the DFA.
+     * @return true if the states are distinguishable, false otherwise.
+     * @throws IllegalArgumentException If a state doesn't belong to the DFA.
+     */
+    public boolean isDistinguishable( FAState s1, FAState s2 ) 
+            throws IllegalArgumentException {
+        int p = getIndex( s1 );
+        int q = getIndex( s2 );
+        return p != q && nextPair[pairIndex( p, q )] != UNMARKED;
+    }
+    
+    /**
+     * Gets the shortest string that distinguishes two states, i.e., a string
+     * accepted starting from one of the states and rejected starting from the
+     * other.
+     * 
+     * @param s1 One state of the DFA.
+     * @param s2 Another state of the DFA.
+     * @return The distinguishing string (may be empty) or null if the states
+     * are equivalent.
+     * @throws IllegalArgumentException If a state doesn't belong to the DFA.
+     */
+    public String getDistinguishingString( FAState s1, FAState s2 ) 
+            throws IllegalArgumentException {
+        
+        int p = getIndex( s1 );
+        int q = getIndex( s2 );
+        
+        if ( p == q || nextPair[pairIndex( p, q )] == UNMARKED ) {
+            return null;
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        int pair = pairIndex( p, q );
+        while ( nextPair[pair] != EMPTY_STRING ) {
+            sb.append( firstSymbol[pair] );
+            pair = nextPair[pair];
+        }
+        
+        return sb.toString();
+        
+    }
+    
+    private int getIndex( FAState s ) throws IllegalArgumentException {
+        Integer i = index.get( s );
+        if ( i == null ) {
+            throw new IllegalArgumentException( 
+                    "The state " + s + " doesn't belong to the DFA!" );
+        }
+        return i;
+    }
+    
+    private static boolean isFinal( List<FAState> states, int s ) {
+        return s < states.size() && states.get( s ).isFinal();
+    }
+    
+    /*
+     * Pairs (p, q), p < q, are stored in a triangular array at the index
+     * q(q-1)/2 + p.
+     */
+    private static int pairIndex( int p, int q ) {
+        if ( p > q ) {
+            int t = p;
+            p = q;
+            q = t;
+        }
+        return (int) ( (long) q * ( q - 1 ) / 2 ) + p;
+    }
+    
+    private static int pairSecond( int pair ) {
+        int q = (int) ( ( 1 + Math.sqrt( 1 + 8.0 * pair ) ) / 2 );
+        while ( (long) q * ( q - 1 ) / 2 > pair ) {
+            q--;
+        }
+        while ( (long) ( q + 1 ) * q / 2 <= pair ) {
+            q++;
+        }
+        return q;
+    }
+    
+}
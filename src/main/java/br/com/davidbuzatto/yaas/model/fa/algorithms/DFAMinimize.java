@@ -17,23 +17,24 @@
 package br.com.davidbuzatto.yaas.model.fa.algorithms;
 
 import br.com.davidbuzatto.yaas.model.fa.FA;
-import static br.com.davidbuzatto.yaas.model.fa.algorithms.FACommon.haveSameDeltaWithOneSymbol;
-import static br.com.davidbuzatto.yaas.model.fa.algorithms.FACommon.isDistinguishable;
 import br.com.davidbuzatto.yaas.model.fa.FAState;
 import br.com.davidbuzatto.yaas.model.fa.FATransition;
 import br.com.davidbuzatto.yaas.util.Utils;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
- * Implements the Myhill-Nerode Theorem (Table filling method) to create a
- * minimized DFA.
+ * Creates a minimized DFA, combining the equivalent states (Myhill-Nerode
+ * Theorem) found by Hopcroft's partition refinement algorithm.
  * 
  * @author Prof. Dr. David Buzatto
  */
@@ -55,8 +56,8 @@ public class DFAMinimize {
     }
     
     /**
-     * Uses the Myhill-Nerode Theorem (Table filling method) to create a
-     * minimized DFA.
+     * Uses Hopcroft's partition refinement algorithm to create a minimized
+     * DFA.
      * 
      * @param dfa The DFA to be processed.
      * @return An equivalent DFA, but minimized. If the processed DFA is already
@@ -99,213 +100,67 @@ public class DFAMinimize {
         List<FAState> states = new ArrayList<>( dfa.getStates() );
         Map<FAState, Map<Character, List<FAState>>> delta = dfa.getDelta();
         
-        /* Myhill-Nerode Theorem:
+        /* Hopcroft's partition refinement:
          *
-         * 1) Using all states, create all possible pairs;
-         * 2) Remove all pairs such one element is a final state and the
-         *    other is not;
-         * 3) For each remaining pair, verify the transition function
-         *    incrementing the input length. If the transition is not equal,
-         *    remove the pair;
-         * 4) The remaining pairs must be combined with their equivalent
-         *    states.
+         * 1) Complete the DFA with an implicit dead state, so missing
+         *    transitions are handled correctly (partial DFAs);
+         * 2) Start with two blocks: final and non-final states;
+         * 3) Use a block and a symbol as a splitter: every block that has
+         *    states going to the splitter block with the symbol and states
+         *    that don't go is split in two. The smaller part becomes a new
+         *    splitter;
+         * 4) When there are no more splitters, the states of each block are
+         *    equivalent and must be combined.
          */
-        
-        // 1) Using all states, create all possible pairs;
         if ( DEBUG ) {
-            System.out.println( "\nStep 01 - creating all possible pairs:" );
-        }
-        Set<FAStatePairHelper> pairs = new LinkedHashSet<>();
-        int sSize = states.size();
-        for ( int i = 0; i < sSize; i++ ) {
-            for ( int j = i+1; j < sSize; j++ ) {
-                FAStatePairHelper pair = new FAStatePairHelper( states.get( i ), states.get( j ) );
-                pairs.add( pair );
-                if ( DEBUG ) {
-                    System.out.println( "    Created pair: " + pair );
-                }
-            }
+            System.out.println( "\nRefining partitions (Hopcroft):" );
         }
+        int[] blockOf = computeEquivalenceClasses( states, delta, dfa.getAlphabet() );
         
-        // 2) Remove all pairs such one element is a final state and the
-        //    other is not;
-        if ( DEBUG ) {
-            System.out.println( """
-
-                    Step 02 - first equivalente class, removing
-                    all pairs such one element is a final
-                    state and the other is not.""" );
-        }
-        Set<FAStatePairHelper> toRemove = new HashSet<>();
-        for ( FAStatePairHelper sp : pairs ) {
-            if ( ( sp.s1.isFinal() && !sp.s2.isFinal() ) || 
-                 ( !sp.s1.isFinal() && sp.s2.isFinal() ) ) {
-                toRemove.add( sp );
-                if ( DEBUG ) {
-                    System.out.println( "    Removing: " + sp );
-                }
+        // groups the equivalent states. the groups are ordered by their first
+        // state in the state list
+        Map<Integer, List<FAState>> blocks = new LinkedHashMap<>();
+        for ( int i = 0; i < states.size(); i++ ) {
+            List<FAState> block = blocks.get( blockOf[i] );
+            if ( block == null ) {
+                block = new ArrayList<>();
+                blocks.put( blockOf[i], block );
             }
+            block.add( states.get( i ) );
         }
-        pairs.removeAll( toRemove );
         
-        if ( DEBUG ) {
-            System.out.println( "    Remaining pairs:" );
-            for ( FAStatePairHelper p : pairs ) {
-                System.out.println( "        " + p );
-            }
-        }
-        
-        // 2.5) Remove all pairs such the transition function with just one
-        // symbol is not the same;
-        if ( DEBUG ) {
-            System.out.println( """
-
-                    Step 02.5 - second equivalence class,
-                    removing all pairs such the transition
-                    function with just one symbol is not
-                    the same.""" );
-        }
-        toRemove.clear();
-        for ( FAStatePairHelper sp : pairs ) {
-            if ( !haveSameDeltaWithOneSymbol( sp.s1, sp.s2 , dfa ) ) {
-                toRemove.add( sp );
-                if ( DEBUG ) {
-                    System.out.println( "    Removing: " + sp );
-                }
-            }
-        }
-        pairs.removeAll( toRemove );
-        
-        if ( DEBUG ) {
-            System.out.println( "    Remaining pairs:" );
-            for ( FAStatePairHelper p : pairs ) {
-                System.out.println( "        " + p );
-            }
-        }
-        
-        // 3) For each remaining pair, verify the transition function
-        //    incrementing the input length. If the transition is not equal,
-        //    remove the pair, i.e, if the pair is distinguishable.
-        if ( DEBUG ) {
-            System.out.println( """
-
-                    Step 03 - remaining equivalence classes,
-                    removing all pairs such the acceptance when
-                    incrementing the input string doesn't match.""" );
-        }
-        toRemove.clear();
-        for ( FAStatePairHelper sp : pairs ) {
-            if ( isDistinguishable( sp.s1, sp.s2, dfa ) ) {
-                toRemove.add( sp );
+        List<List<FAState>> newStateSets = new ArrayList<>();
+        for ( List<FAState> block : blocks.values() ) {
+            if ( block.size() > 1 ) {
+                Collections.sort( block );
+                newStateSets.add( block );
                 if ( DEBUG ) {
-                    System.out.println( "        Removing: " + sp );
+                    System.out.println( "    Combining: " + block );
                 }
             }
         }
-        pairs.removeAll( toRemove );
         
-        if ( DEBUG ) {
-            System.out.println( "    Remaining pairs:" );
-            for ( FAStatePairHelper p : pairs ) {
-                System.out.println( "        " + p );
-            }
-        }
-        
-        /* If all pairs are removed, all of them are distinguishable, so the
-         * DFA is already minimum and it is returned.
+        /* If there is nothing to combine, all states are distinguishable, so
+         * the DFA is already minimum and it is returned.
          */
-        if ( pairs.isEmpty() ) {
+        if ( newStateSets.isEmpty() ) {
             return dfa;
         }
         
-        // 4) The remaining pairs must be combined with their equivalent
-        //    states. Applying transitivity.
-        if ( DEBUG ) {
-            System.out.println( "\nStep 04 - combining states:" );
-        }
-        List<Set<FAState>> newStateSets = new ArrayList<>();
-        while ( !pairs.isEmpty() ) {
-
-            FAStatePairHelper cPair = pairs.iterator().next();
-
-            // finds the groups (if any) that already contain each state of
-            // the pair. equivalence is transitive, so a pair can bridge two
-            // previously separated groups
-            Set<FAState> groupS1 = null;
-            Set<FAState> groupS2 = null;
-            for ( Set<FAState> s : newStateSets ) {
-                if ( s.contains( cPair.s1 ) ) {
-                    groupS1 = s;
-                }
-                if ( s.contains( cPair.s2 ) ) {
-                    groupS2 = s;
-                }
-            }
-
-            if ( groupS1 == null && groupS2 == null ) {
-
-                // neither state is grouped yet: creates a new group
-                Set<FAState> newStateSet = new TreeSet<>();
-                newStateSet.add( cPair.s1 );
-                newStateSet.add( cPair.s2 );
-                newStateSets.add( newStateSet );
-                if ( DEBUG ) {
-                    System.out.println( "    Combining: " + newStateSet );
-                }
-
-            } else if ( groupS1 != null && groupS2 == null ) {
-
-                // only s1 is grouped: s2 joins its group
-                groupS1.add( cPair.s2 );
-                if ( DEBUG ) {
-                    System.out.println( "    Combining: " + groupS1 );
-                }
-
-            } else if ( groupS1 == null && groupS2 != null ) {
-
-                // only s2 is grouped: s1 joins its group
-                groupS2.add( cPair.s1 );
-                if ( DEBUG ) {
-                    System.out.println( "    Combining: " + groupS2 );
-                }
-
-            } else if ( groupS1 != groupS2 ) {
-
-                // both states are in different groups: by transitivity the
-                // two groups must be merged into a single one
-                groupS1.addAll( groupS2 );
-                newStateSets.remove( groupS2 );
-                if ( DEBUG ) {
-                    System.out.println( "    Merging groups into: " + groupS1 );
-                }
-
-            }
-            // if groupS1 == groupS2 (and not null) both states are already
-            // in the same group, so there is nothing to do
-
-            pairs.remove( cPair );
-
-        }
-        
-        if ( DEBUG ) {
-            System.out.println( "    Remaining pairs:" );
-            for ( FAStatePairHelper p : pairs ) {
-                System.out.println( "        " + p );
-            }
-        }
-        
         // finally, deriving the minized automaton :D
         // the transition generation needs more testing!!!
-        for ( Set<FAState> s : newStateSets ) {
-            states.removeAll( s );
+        Set<FAState> combined = new HashSet<>();
+        for ( List<FAState> s : newStateSets ) {
+            combined.addAll( s );
         }
+        states.removeAll( combined );
             
         // new initial state
         FAState dfaIS = new FAState( 0 );
         dfaIS.setInitial( true );
 
         FAState iS = dfa.getInitialState();
-        Map<FAState, Set<FAState>> newToSet = new HashMap<>();
+        Map<FAState, List<FAState>> newToSet = new HashMap<>();
         Map<FAState, FAState> originalToNew = new HashMap<>();
 
         for ( FAState s : states ) {
@@ -327,7 +182,7 @@ public class DFAMinimize {
 
         }
 
-        for ( Set<FAState> s : newStateSets ) {
+        for ( List<FAState> s : newStateSets ) {
 
             String label = "";
             boolean isFinal = false;
@@ -358,7 +213,7 @@ public class DFAMinimize {
 
         }
 
-        for ( Map.Entry<FAState, Set<FAState>> e : newToSet.entrySet() ) {
+        for ( Map.Entry<FAState, List<FAState>> e : newToSet.entrySet() ) {
             for ( FAState s : e.getValue() ) {
                 originalToNew.put( s, e.getKey() );
             }
@@ -382,4 +237,179 @@ public class DFAMinimize {
         
     }
     
+    /**
+     * Computes the equivalence classes of the states of a DFA using
+     * Hopcroft's partition refinement algorithm, in O(n.k.log n) time, n
+     * being the number of states and k the size of the alphabet.
+     * 
+     * @param states The states of the DFA.
+     * @param delta The transition function of the DFA.
+     * @param alphabet The alphabet of the DFA.
+     * @return The block of each state (same index of the states list).
+     * Equivalent states are in the same block.
+     */
+    private static int[] computeEquivalenceClasses( 
+            List<FAState> states, 
+            Map<FAState, Map<Character, List<FAState>>> delta,
+            Set<Character> alphabet ) {
+        
+        int n = states.size();
+        int dead = n;
+        int size = n + 1;
+        int k = alphabet.size();
+        
+        Map<FAState, Integer> index = new HashMap<>();
+        for ( int i = 0; i < n; i++ ) {
+            index.put( states.get( i ), i );
+        }
+        
+        // total transition function, missing transitions go to the dead state
+        int[][] table = new int[size][k];
+        int a = 0;
+        for ( Character c : alphabet ) {
+            for ( int i = 0; i < n; i++ ) {
+                List<FAState> t = delta.get( states.get( i ) ).get( c );
+                table[i][a] = t == null ? dead : index.get( t.get( 0 ) );
+            }
+            table[dead][a] = dead;
+            a++;
+        }
+        
+        // inverse transitions, preds[a][t] in predList[a][predStart[a][t]..predStart[a][t+1])
+        int[][] predStart = new int[k][size+1];
+        int[][] predList = new int[k][size];
+        for ( a = 0; a < k; a++ ) {
+            for ( int s = 0; s < size; s++ ) {
+                predStart[a][table[s][a]+1]++;
+            }
+            for ( int t = 0; t < size; t++ ) {
+                predStart[a][t+1] += predStart[a][t];
+            }
+            int[] fill = Arrays.copyOf( predStart[a], size );
+            for ( int s = 0; s < size; s++ ) {
+                predList[a][fill[table[s][a]]++] = s;
+            }
+        }
+        
+        // refinable partition: the elements of each block are contiguous in
+        // the elements array
+        int[] elements = new int[size];
+        int[] location = new int[size];
+        int[] blockOf = new int[size];
+        int[] blockStart = new int[size];
+        int[] blockEnd = new int[size];
+        int[] marked = new int[size];
+        int blockCount = 0;
+        
+        int p = 0;
+        for ( int pass = 0; pass < 2; pass++ ) {
+            int start = p;
+            for ( int s = 0; s < size; s++ ) {
+                boolean isFinal = s != dead && states.get( s ).isFinal();
+                if ( isFinal == ( pass == 0 ) ) {
+                    elements[p] = s;
+                    location[s] = p;
+                    blockOf[s] = blockCount;
+                    p++;
+                }
+            }
+            if ( p > start ) {
+                blockStart[blockCount] = start;
+                blockEnd[blockCount] = p;
+                blockCount++;
+            }
+        }
+        
+        // splitters
+        boolean[][] inWorklist = new boolean[size][k];
+        Deque<int[]> worklist = new ArrayDeque<>();
+        int first = 0;
+        if ( blockCount == 2 && 
+                blockEnd[1] - blockStart[1] < blockEnd[0] - blockStart[0] ) {
+            first = 1;
+        }
+        for ( a = 0; a < k; a++ ) {
+            worklist.add( new int[]{ first, a } );
+            inWorklist[first][a] = true;
+        }
+        
+        int[] splitter = new int[size];
+        List<Integer> touched = new ArrayList<>();
+        
+        while ( !worklist.isEmpty() ) {
+            
+            int[] w = worklist.poll();
+            int b = w[0];
+            a = w[1];
+            inWorklist[b][a] = false;
+            
+            // copies the splitter, since it can be split while processed
+            int splitterSize = blockEnd[b] - blockStart[b];
+            System.arraycopy( elements, blockStart[b], splitter, 0, splitterSize );
+            
+            // marks the predecessors, moving them to the start of their blocks
+            for ( int i = 0; i < splitterSize; i++ ) {
+                int t = splitter[i];
+                for ( int j = predStart[a][t]; j < predStart[a][t+1]; j++ ) {
+                    int s = predList[a][j];
+                    int x = blockOf[s];
+                    int target = blockStart[x] + marked[x];
+                    int other = elements[target];
+                    elements[location[s]] = other;
+                    location[other] = location[s];
+                    elements[target] = s;
+                    location[s] = target;
+                    if ( marked[x]++ == 0 ) {
+                        touched.add( x );
+                    }
+                }
+            }
+            
+            // splits the blocks partially marked
+            for ( int x : touched ) {
+                
+                int m = marked[x];
+                marked[x] = 0;
+                
+                if ( m == blockEnd[x] - blockStart[x] ) {
+                    continue;
+                }
+                
+                int y = blockCount++;
+                blockStart[y] = blockStart[x];
+                blockEnd[y] = blockStart[x] + m;
+                blockStart[x] = blockEnd[y];
+                for ( int i = blockStart[y]; i < blockEnd[y]; i++ ) {
+                    blockOf[elements[i]] = y;
+                }
+                
+                boolean ySmaller = blockEnd[y] - blockStart[y] <= blockEnd[x] - blockStart[x];
+                for ( int c = 0; c < k; c++ ) {
+                    int nb = inWorklist[x][c] || ySmaller ? y : x;
+                    if ( !inWorklist[nb][c] ) {
+                        worklist.add( new int[]{ nb, c } );
+                        inWorklist[nb][c] = true;
+                    }
+                }
+                
+            }
+            
+            touched.clear();
+            
+        }
+        
+        if ( DEBUG ) {
+            for ( int b = 0; b < blockCount; b++ ) {
+                List<String> block = new ArrayList<>();
+                for ( int i = blockStart[b]; i < blockEnd[b]; i++ ) {
+                    block.add( elements[i] == dead ? "dead" : states.get( elements[i] ).toString() );
+                }
+                System.out.println( "    Block: " + block );
+            }
+        }
+        
+        return Arrays.copyOf( blockOf, n );
+        
+    }
+    
 }
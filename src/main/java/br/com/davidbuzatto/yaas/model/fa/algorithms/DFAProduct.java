@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa.algorithms;
+
+import br.com.davidbuzatto.yaas.model.fa.FA;
+import static br.com.davidbuzatto.yaas.model.fa.algorithms.FACommon.newCustomLabel;
+import br.com.davidbuzatto.yaas.model.fa.FAState;
+import br.com.davidbuzatto.yaas.model.fa.FATransition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Performs the product construction of two DFAs, generating a new DFA that
+ * recognizes the intersection, union, difference or symmetric difference of
+ * their languages.
+ * 
+ * Only the pairs of states reachable from the pair of initial states are
+ * generated (breadth-first), so no determinization is needed. Partial DFAs
+ * are handled with an implicit dead state.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class DFAProduct {
+    
+    private static final int DEAD = -1;
+    
+    private final FA generatedDFA;
+    
+    public DFAProduct( FA dfa1, FA dfa2, DFAProductOperation operation ) 
+            throws IllegalArgumentException {
+        generatedDFA = processIt( dfa1, dfa2, operation );
+    }
+
+    public FA getGeneratedDFA() {
+        return generatedDFA;
+    }
+    
+    private static FA processIt( FA dfa1, FA dfa2, DFAProductOperation operation )
+            throws IllegalArgumentException {
+        
+        FACommon.validateDFA( dfa1, dfa2 );
+        FACommon.validateInitialState( dfa1, dfa2 );
+        
+        Set<Character> alphabetSet = new TreeSet<>( dfa1.getAlphabet() );
+        alphabetSet.addAll( dfa2.getAlphabet() );
+        char[] alphabet = new char[alphabetSet.size()];
+        int k = 0;
+        for ( char c : alphabetSet ) {
+            alphabet[k++] = c;
+        }
+        
+        List<FAState> states1 = dfa1.getStates();
+        List<FAState> states2 = dfa2.getStates();
+        int[][] table1 = buildTable( dfa1, alphabet );
+        int[][] table2 = buildTable( dfa2, alphabet );
+        
+        // pairs are identified by p * (n2 + 1) + q, shifting the dead state
+        long width = states2.size() + 1;
+        Map<Long, Integer> ids = new HashMap<>();
+        List<int[]> pairs = new ArrayList<>();
+        
+        // transitions indexed by (origin, target)
+        Map<Long, List<Character>> transitions = new LinkedHashMap<>();
+        
+        int[] initial = new int[]{ 
+            states1.indexOf( dfa1.getInitialState() ), 
+            states2.indexOf( dfa2.getInitialState() ) };
+        ids.put( ( initial[0] + 1 ) * width + initial[1] + 1, 0 );
+        pairs.add( initial );
+        
+        for ( int current = 0; current < pairs.size(); current++ ) {
+            
+            int[] pair = pairs.get( current );
+            
+            for ( int a = 0; a < k; a++ ) {
+                
+                int p = pair[0] == DEAD ? DEAD : table1[pair[0]][a];
+                int q = pair[1] == DEAD ? DEAD : table2[pair[1]][a];
+                
+                if ( ( p == DEAD && q == DEAD ) || 
+                        ( p == DEAD && !operation.needsFirstDeadState() ) ||
+                        ( q == DEAD && !operation.needsSecondDeadState() ) ) {
+                    continue;
+                }
+                
+                long key = ( p + 1 ) * width + q + 1;
+                Integer target = ids.get( key );
+                if ( target == null ) {
+                    target = pairs.size();
+                    ids.put( key, target );
+                    pairs.add( new int[]{ p, q } );
+                }
+                
+                long tKey = ( (long) current << 32 ) | target;
+                List<Character> symbols = transitions.get( tKey );
+                if ( symbols == null ) {
+                    symbols = new ArrayList<>();
+                    transitions.put( tKey, symbols );
+                }
+                symbols.add( alphabet[a] );
+                
+            }
+            
+        }
+        
+        FA product = new FA();
+        FAState[] newStates = new FAState[pairs.size()];
+        
+        for ( int i = 0; i < newStates.length; i++ ) {
+            int[] pair = pairs.get( i );
+            boolean final1 = pair[0] != DEAD && states1.get( pair[0] ).isFinal();
+            boolean final2 = pair[1] != DEAD && states2.get( pair[1] ).isFinal();
+            newStates[i] = new FAState( i, i < 702 ? newCustomLabel( i ) : null, 
+                    i == 0, operation.isFinal( final1, final2 ) );
+            product.addState( newStates[i] );
+        }
+        
+        for ( Map.Entry<Long, List<Character>> e : transitions.entrySet() ) {
+            int origin = (int) ( e.getKey() >>> 32 );
+            int target = (int) ( e.getKey() & 0xFFFFFFFFL );
+            product.addTransition( new FATransition( 
+                    newStates[origin], newStates[target], e.getValue() ) );
+        }
+        
+        product = new FARemoveInaccessibleAndUselessStates( product, false ).getGeneratedFA();
+        FACommon.reenumerateStates( product );
+        product.resetTransitionsTransformations();
+        
+        return product;
+        
+    }
+    
+    /**
+     * Builds the transition table of a DFA over an alphabet.
+     * 
+     * @return table[state][symbol] with the target state or DEAD.
+     */
+    private static int[][] buildTable( FA dfa, char[] alphabet ) {
+        
+        List<FAState> states = dfa.getStates();
+        Map<FAState, Integer> index = new HashMap<>();
+        for ( int i = 0; i < states.size(); i++ ) {
+            index.put( states.get( i ), i );
+        }
+        
+        Map<Character, Integer> symbolIndex = new HashMap<>();
+        for ( int a = 0; a < alphabet.length; a++ ) {
+            symbolIndex.put( alphabet[a], a );
+        }
+        
+        int[][] table = new int[states.size()][alphabet.length];
+        for ( int[] row : table ) {
+            Arrays.fill( row, DEAD );
+        }
+        
+        for ( FATransition t : dfa.getTransitions() ) {
+            int o = index.get( t.getOriginState() );
+            int d = index.get( t.getTargetState() );
+            for ( char c : t.getSymbols() ) {
+                table[o][symbolIndex.get( c )] = d;
+            }
+        }
+        
+        return table;
+        
+    }
+    
+}
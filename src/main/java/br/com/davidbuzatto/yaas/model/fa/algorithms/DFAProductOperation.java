@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.fa.algorithms;
+
+/**
+ * Operations performed by the product construction of two DFAs.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public enum DFAProductOperation {
+    
+    INTERSECTION,
+    UNION,
+    DIFFERENCE,
+    SYMMETRIC_DIFFERENCE;
+    
+    /**
+     * Decides if a pair of states is final in the product automaton.
+     * 
+     * @param final1 If the state of the first DFA is final.
+     * @param final2 If the state of the second DFA is final.
+     * @return true if the pair is final, false otherwise.
+     */
+    public boolean isFinal( boolean final1, boolean final2 ) {
+        switch ( this ) {
+            case INTERSECTION:
+                return final1 && final2;
+            case UNION:
+                return final1 || final2;
+            case DIFFERENCE:
+                return final1 && !final2;
+            default:
+                return final1 != final2;
+        }
+    }
+    
+    /**
+     * Verifies if a pair with the first DFA in its implicit dead state can
+     * still reach a final pair.
+     * 
+     * @return true if such pairs must be generated, false otherwise.
+     */
+    public boolean needsFirstDeadState() {
+        return this == UNION || this == SYMMETRIC_DIFFERENCE;
+    }
+    
+    /**
+     * Verifies if a pair with the second DFA in its implicit dead state can
+     * still reach a final pair.
+     * 
+     * @return true if such pairs must be generated, false otherwise.
+     */
+    public boolean needsSecondDeadState() {
+        return this != INTERSECTION;
+    }
+    
+}
@@ -19,13 +19,10 @@ package br.com.davidbuzatto.yaas.model.fa.algorithms;
 import br.com.davidbuzatto.yaas.model.fa.FA;
 import br.com.davidbuzatto.yaas.model.fa.FAState;
 import br.com.davidbuzatto.yaas.model.fa.FAType;
-import br.com.davidbuzatto.yaas.util.SigmaStarGeneratorStream;
 import br.com.davidbuzatto.yaas.util.Utils;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * Common algorithms for reuse.
@@ -113,7 +110,8 @@ public class FACommon {
     }
     
     /**
-     * Verifies if two states are distinguishable.
+     * Verifies if two states are distinguishable. For many queries over the
+     * same DFA, build a {@link DFADistinguishabilityTable} once instead.
      * 
      * @param s1 One FA state.
      * @param s2 Another FA state.
@@ -125,63 +123,18 @@ public class FACommon {
             FAState s2,
             FA dfa ) throws IllegalArgumentException {
         
-        boolean result = false;
-        
         if ( dfa.getType() != FAType.DFA ) {
             throw new IllegalArgumentException( "You must use an DFA!" );
         }
         
-        Map<FAState, Map<Character, List<FAState>>> delta = dfa.getDelta();
-
-        // uses the whole automaton alphabet, not only the symbols defined in
-        // s1/s2. a distinguishing string can start with a locally defined
-        // symbol and continue with symbols reached afterwards, so restricting
-        // the alphabet to the local one would miss distinguishing strings and
-        // wrongly merge states (acceptsDFA already treats a missing transition
-        // as a move to the implicit dead state, i.e. a rejection)
-        Set<Character> alphabet = new TreeSet<>( dfa.getAlphabet() );
-
-        if ( !alphabet.isEmpty() ) {
-
-            // generate strings starting with length = 2
-            SigmaStarGeneratorStream ssgs = new SigmaStarGeneratorStream( alphabet, 2 );
-
-            // max length => n-1, n being the number of states of the DFA. the
-            // bound is n-1 (and not n-2) to account for the implicit dead state
-            // that represents the missing transitions of a partial DFA
-            int maxLength = dfa.getStates().size() - 1;
-            
-            if ( DEBUG ) {
-                System.out.println( "    Testing " + s1 + " and " + s2 + ":" );
-            }
-            
-            while ( true ) {
-                
-                String str = ssgs.next();
-                
-                if ( str.length() > maxLength ) {
-                    result = false;
-                    break;
-                } else {
-                    
-                    boolean accS1 = acceptsDFA( str, dfa, s1 );
-                    boolean accS2 = acceptsDFA( str, dfa, s2 );
-                    
-                    if ( DEBUG ) {
-                        System.out.println( "        " + s1 + " " + str + ": " + accS1 );
-                        System.out.println( "        " + s2 + " " + str + ": " + accS2 );
-                        System.out.println( "        " + ( accS1 != accS2 ? "don't match" : "match" ) + "\n" );
-                    }
-                    
-                    if ( accS1 != accS2 ) {
-                        result = true;
-                        break;
-                    }
-                    
-                }
-                
-            }
-            
+        DFADistinguishabilityTable table = new DFADistinguishabilityTable( dfa );
+        boolean result = table.isDistinguishable( s1, s2 );
+        
+        if ( DEBUG ) {
+            System.out.println( "    Testing " + s1 + " and " + s2 + ": " + 
+                    ( result ? "distinguished by \"" + 
+                            table.getDistinguishingString( s1, s2 ) + "\"" : 
+                            "equivalent" ) );
         }
         
         return result;
@@ -17,18 +17,16 @@
 package br.com.davidbuzatto.yaas.model.fa.algorithms;
 
 import br.com.davidbuzatto.yaas.model.fa.FA;
+import br.com.davidbuzatto.yaas.model.fa.FABitset;
+import br.com.davidbuzatto.yaas.model.fa.FABitsetNFA;
 import static br.com.davidbuzatto.yaas.model.fa.algorithms.FACommon.newCustomLabel;
 import br.com.davidbuzatto.yaas.model.fa.FAState;
 import br.com.davidbuzatto.yaas.model.fa.FATransition;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 /**
@@ -41,8 +39,12 @@ public class FADeterminize {
     
     private final FA generatedDFA;
     
-    public FADeterminize( FA fa ) {
-        generatedDFA = processIt( fa );
+    public FADeterminize( FA fa ) throws IllegalArgumentException {
+        this( fa, false );
+    }
+    
+    public FADeterminize( FA fa, boolean minimize ) throws IllegalArgumentException {
+        generatedDFA = processIt( fa, minimize );
     }
 
     public FA getGeneratedDFA() {
@@ -50,119 +52,100 @@ public class FADeterminize {
     }
     
     /**
-     * Generates a new Finite Automaton without any non-determinisms.
+     * Generates a new Finite Automaton without any non-determinisms (subset
+     * construction).
+     * 
+     * The sets of states are represented as bitsets and interned by their
+     * content (with cached hashes). The epsilon-closures are already folded
+     * into the successor sets of the bitset form of the automaton and the
+     * generated transitions are indexed by (origin, target).
      * 
      * @param fa The Finite Automaton to be processed.
-     * @return An equivalent DFA (not minimum).
+     * @param minimize If the generated DFA should be minimized.
+     * @return An equivalent DFA.
      */
-    private static FA processIt( FA fa ) {
+    private static FA processIt( FA fa, boolean minimize ) throws IllegalArgumentException {
+        
+        FACommon.validateInitialState( fa );
         
         FA dfa = new FA();
-        int currentState = 0;
+        FABitsetNFA nfa = fa.getBitsetNFA();
         
-        // get data from the original automaton
+        // symbols in alphabetical order, with their indexes in the bitset form
         Set<Character> alphabet = fa.getAlphabet();
-        FAState initialState = fa.getInitialState();
-        List<FAState> acceptinStates = fa.getFinalStates();
-        Map<FAState, Map<Character, List<FAState>>> delta = fa.getDelta();
-        Map<FAState, Set<FAState>> ecloses = fa.getEcloses( delta );
-        
-        // start the process of generation
-        
-        // creates the new initial state
-        FAState dfaInitial = new FAState( currentState );
-        dfaInitial.setInitial( true );
-        dfaInitial.setCustomLabel( newCustomLabel( currentState++ ) );
-        StateHelper initialSH = new StateHelper( dfaInitial, ecloses.get( initialState ) );
+        char[] symbols = new char[alphabet.size()];
+        int[] symbolIndexes = new int[alphabet.size()];
+        int k = 0;
+        for ( char c : alphabet ) {
+            symbols[k] = c;
+            symbolIndexes[k++] = nfa.getSymbolIndex( c );
+        }
         
-        // data strutctures to store transitions and states that will be generated
-        Set<TransitionHelper> generatedTransitions = new LinkedHashSet<>();
-        Set<StateHelper> generatedStates = new LinkedHashSet<>();
-        generatedStates.add( initialSH );
+        // data strutctures to store the sets (generated states) and the
+        // transitions that will be generated
+        Map<FABitset, Integer> ids = new HashMap<>();
+        List<FABitset> sets = new ArrayList<>();
+        Map<Long, List<Character>> generatedTransitions = new LinkedHashMap<>();
         
-        // a queue to process the generated states
-        Queue<StateHelper> queue = new ArrayDeque<>();
-        queue.add( initialSH );
+        FABitset initialSet = new FABitset( nfa.getInitialSet() );
+        ids.put( initialSet, 0 );
+        sets.add( initialSet );
         
-        // on demand process of new states
-        while ( !queue.isEmpty() ) {
+        // on demand process of new states (the list works as a queue)
+        for ( int current = 0; current < sets.size(); current++ ) {
             
-            StateHelper current = queue.poll();
+            long[] currentWords = sets.get( current ).getWords();
             
-            for ( Character a : alphabet ) {
+            for ( int a = 0; a < k; a++ ) {
                 
-                Set<FAState> targetEclose = new HashSet<>();
+                long[] targetWords = new long[nfa.getWords()];
                 
-                for ( FAState s : current.states ) {
+                if ( nfa.step( currentWords, symbolIndexes[a], targetWords ) ) {
                     
-                    List<FAState> t = delta.get( s ).get( a );
-                    if ( t != null && !t.isEmpty() ) {
-                        for ( FAState ns : t ) {
-                            targetEclose.addAll( ecloses.get( ns ) );
-                        }
-                    }
-
-                }
-                
-                if ( !targetEclose.isEmpty() ) {
-
-                    StateHelper newSH = new StateHelper( targetEclose );
+                    FABitset targetSet = new FABitset( targetWords );
+                    Integer target = ids.get( targetSet );
                     
-                    if ( !generatedStates.contains( newSH ) ) {
-                        
-                        FAState newState = new FAState( currentState );
-                        newState.setCustomLabel( newCustomLabel( currentState++ ) );
-                        newSH.state = newState;
-                        generatedStates.add( newSH );
-                        queue.add( newSH );
-                        
+                    if ( target == null ) {
+                        target = sets.size();
+                        ids.put( targetSet, target );
+                        sets.add( targetSet );
                     }
                     
-                    TransitionHelper newTH = new TransitionHelper( current, newSH, a );
-                    if ( generatedTransitions.contains( newTH ) ) {
-                        for ( TransitionHelper t : generatedTransitions ) {
-                            if ( t.equals( newTH ) ) {
-                                t.symbols.addAll( newTH.symbols );
-                            }
-                        }
-                    } else {
-                        generatedTransitions.add( newTH );
+                    long key = ( (long) current << 32 ) | target;
+                    List<Character> tSymbols = generatedTransitions.get( key );
+                    if ( tSymbols == null ) {
+                        tSymbols = new ArrayList<>();
+                        generatedTransitions.put( key, tSymbols );
                     }
-
+                    tSymbols.add( symbols[a] );
+                    
                 }
-
+                
             }
             
         }
         
-        for ( StateHelper s : generatedStates ) {
-            for ( FAState a : acceptinStates ) {
-                if ( s.states.contains( a ) ) {
-                    s.state.setFinal( true );
-                    break;
-                }
-            }
-        }
-        
-        for ( StateHelper s : generatedStates ) {
-            dfa.addState( s.state );
+        FAState[] states = new FAState[sets.size()];
+        for ( int i = 0; i < states.length; i++ ) {
+            FAState newState = new FAState( i );
+            newState.setCustomLabel( newCustomLabel( i ) );
+            newState.setInitial( i == 0 );
+            newState.setFinal( nfa.containsFinal( sets.get( i ).getWords() ) );
+            states[i] = newState;
+            dfa.addState( newState );
         }
         
-        Map<Set<FAState>, FAState> m = new HashMap<>();
-        for ( TransitionHelper t : generatedTransitions ) {
-            m.put( t.originState.states, t.originState.state );
+        for ( Map.Entry<Long, List<Character>> e : generatedTransitions.entrySet() ) {
+            int origin = (int) ( e.getKey() >>> 32 );
+            int target = (int) ( e.getKey() & 0xFFFFFFFFL );
+            dfa.addTransition( new FATransition( 
+                    states[origin], states[target], e.getValue() ) );
         }
         
-        for ( TransitionHelper t : generatedTransitions ) {
-            t.targetState.state = m.get( t.targetState.states );
-            List<Character> symbols = new ArrayList<>();
-            symbols.addAll( t.symbols );
-            dfa.addTransition( new FATransition( 
-                    t.originState.state, 
-                    t.targetState.state, symbols ) );
+        if ( minimize && !dfa.getFinalStates().isEmpty() ) {
+            dfa = new DFAMinimize( dfa, true ).getGeneratedDFA();
         }
         
-        Collections.sort( dfa.getStates() );
         return dfa;
         
     }
@@ -36,39 +36,17 @@ public class FAIntersection {
         return generatedFA;
     }
     
-    @SuppressWarnings( "unchecked" )
     private static FA processIt( FA fa1, FA fa2 )
             throws IllegalArgumentException {
         
-        try {
-            
-            FACommon.validateDFA( fa1, fa2 );
-            FACommon.validateInitialState( fa1, fa2 );
-            FACommon.validateFinalStates( fa1, fa2 );
-
-            fa1 = (FA) fa1.clone();
-            fa2 = (FA) fa2.clone();
-            
-            fa1 = new DFAComplement( fa1 ).getGeneratedDFA();
-            fa2 = new DFAComplement( fa2 ).getGeneratedDFA();
-            
-            fa1 = new FAUnion( fa1, fa2 ).getGeneratedFA();
-            fa1 = new FADeterminize( fa1 ).getGeneratedDFA();
-            fa1 = new DFAComplement( fa1 ).getGeneratedDFA();
-            fa1 = new FARemoveInaccessibleAndUselessStates( fa1, true ).getGeneratedFA();
-            //fa1 = new DFAMinimize( fa1 ).getGeneratedDFA();
-            
-            FACommon.reenumerateStates( fa1 );
-            fa1.resetTransitionsTransformations();
-            
-            return fa1;
-            
-        } catch ( CloneNotSupportedException exc ) {
-            // should never be reached
-            exc.printStackTrace();
-        }
+        FACommon.validateDFA( fa1, fa2 );
+        FACommon.validateInitialState( fa1, fa2 );
+        FACommon.validateFinalStates( fa1, fa2 );
         
-        return null;
+        // direct product construction instead of complement, union,
+        // determinization and complement again (De Morgan)
+        return new DFAProduct( fa1, fa2, DFAProductOperation.INTERSECTION )
+                .getGeneratedDFA();
         
     }
     
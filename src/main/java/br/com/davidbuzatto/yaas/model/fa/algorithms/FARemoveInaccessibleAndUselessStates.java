@@ -20,10 +20,12 @@ import br.com.davidbuzatto.yaas.model.fa.FA;
 import br.com.davidbuzatto.yaas.model.fa.FAState;
 import br.com.davidbuzatto.yaas.model.fa.FATransition;
 import br.com.davidbuzatto.yaas.util.Utils;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Creates a new FA without inaccessible and useless states.
@@ -58,35 +60,62 @@ public class FARemoveInaccessibleAndUselessStates {
             fa.deactivateAllStatesInSimulation();
             fa.deselectAll();
             
-            Set<FAState> inaccessibleStates = new HashSet<>( fa.getStates() );
-            List<FAState> uselessStates = new ArrayList<>();
+            List<FAState> states = fa.getStates();
+            int n = states.size();
             
-            Set<FAState> visitedI = new HashSet<>();
-            dfs( fa.getInitialState(), fa.getTransitions(), visitedI );
-            inaccessibleStates.removeAll( visitedI );
-            for ( FAState s : inaccessibleStates ) {
-                fa.removeState( s );
-                if ( DEBUG ) {
-                    System.out.println( "    Inacessible state: " + s );
-                }
+            Map<FAState, Integer> index = new HashMap<>();
+            for ( int i = 0; i < n; i++ ) {
+                index.put( states.get( i ), i );
+            }
+            
+            // adjacency lists (forward and backward)
+            List<List<Integer>> next = new ArrayList<>();
+            List<List<Integer>> previous = new ArrayList<>();
+            for ( int i = 0; i < n; i++ ) {
+                next.add( new ArrayList<>() );
+                previous.add( new ArrayList<>() );
+            }
+            for ( FATransition t : fa.getTransitions() ) {
+                int o = index.get( t.getOriginState() );
+                int d = index.get( t.getTargetState() );
+                next.get( o ).add( d );
+                previous.get( d ).add( o );
             }
             
-            Set<FAState> finalStates = new HashSet<>( fa.getFinalStates() );
-            Set<FAState> visitedU = new HashSet<>();
-            for ( FAState s : fa.getStates() ) {
-                visitedU.clear();
-                dfs( s, fa.getTransitions(), visitedU );
-                if ( !containsAtLeastOne( finalStates, visitedU ) ) {
-                    uselessStates.add( s );
+            // accessible: reachable from the initial state
+            boolean[] accessible = new boolean[n];
+            Integer initial = index.get( fa.getInitialState() );
+            if ( initial != null ) {
+                search( initial, next, accessible );
+            }
+            
+            // useful: can reach a final state
+            boolean[] useful = new boolean[n];
+            for ( int i = 0; i < n; i++ ) {
+                if ( states.get( i ).isFinal() && !useful[i] ) {
+                    search( i, previous, useful );
                 }
             }
-            for ( FAState s : uselessStates ) {
-                fa.removeState( s );
-                if ( DEBUG ) {
-                    System.out.println( "    Useless state: " + s );
+            
+            List<FAState> toRemove = new ArrayList<>();
+            for ( int i = 0; i < n; i++ ) {
+                if ( !accessible[i] ) {
+                    toRemove.add( states.get( i ) );
+                    if ( DEBUG ) {
+                        System.out.println( "    Inacessible state: " + states.get( i ) );
+                    }
+                } else if ( !useful[i] ) {
+                    toRemove.add( states.get( i ) );
+                    if ( DEBUG ) {
+                        System.out.println( "    Useless state: " + states.get( i ) );
+                    }
                 }
             }
             
+            if ( !toRemove.isEmpty() ) {
+                fa.removeStates( toRemove );
+            }
+            
             FACommon.reenumerateStates( fa );
             fa.resetTransitionsTransformations();
             
@@ -101,24 +130,29 @@ public class FARemoveInaccessibleAndUselessStates {
         
     }
     
-    private static void dfs( FAState s, List<FATransition> transitions, Set<FAState> visited ) {
-        if ( !visited.contains( s ) ) {
-            visited.add( s );
-            for ( FATransition t : transitions ) {
-                if ( t.getOriginState().equals( s ) ) {
-                    dfs( t.getTargetState(), transitions, visited );
+    /**
+     * Marks all states reachable from a start state (iterative depth-first
+     * search).
+     * 
+     * @param start The start state.
+     * @param adjacency The adjacency lists.
+     * @param visited The visited states, updated by the search.
+     */
+    private static void search( int start, List<List<Integer>> adjacency, boolean[] visited ) {
+        
+        Deque<Integer> stack = new ArrayDeque<>();
+        visited[start] = true;
+        stack.push( start );
+        
+        while ( !stack.isEmpty() ) {
+            for ( int d : adjacency.get( stack.pop() ) ) {
+                if ( !visited[d] ) {
+                    visited[d] = true;
+                    stack.push( d );
                 }
             }
         }
-    }
-    
-    private static boolean containsAtLeastOne( Set<FAState> states, Set<FAState> testSet ) {
-        for ( FAState s : testSet ) {
-            if ( states.contains( s ) ) {
-                return true;
-            }
-        }
-        return false;
+        
     }
     
 }
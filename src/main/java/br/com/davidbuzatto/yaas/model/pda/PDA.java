@@ -19,7 +19,6 @@ package br.com.davidbuzatto.yaas.model.pda;
 import br.com.davidbuzatto.yaas.gui.ZoomFacility;
 import br.com.davidbuzatto.yaas.gui.pda.PDASimulationStep;
 import br.com.davidbuzatto.yaas.model.AbstractGeometricForm;
-import br.com.davidbuzatto.yaas.util.ApplicationConstants;
 import br.com.davidbuzatto.yaas.util.CharacterConstants;
 import br.com.davidbuzatto.yaas.util.Utils;
 import java.awt.Color;
@@ -30,11 +29,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
@@ -55,13 +55,7 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     private char stackStartingSymbol;
     private PDAType type;
     
-    private transient PDAID rootId;
-    private transient List<PDAID> ids;
-    private transient static int buildTreeLevel;
     private transient static final String levelString = "  ";
-    private transient boolean accepted;
-    private transient boolean acceptForSimulation;
-    private transient PDAID firstAcceptedId;
     
     // cache control
     private transient boolean alphabetUpToDate;
@@ -72,6 +66,16 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     private transient Set<Character> stackAlphabet;
     private transient Map<PDAState, List<PDATransition>> delta;
     
+    // incremental index, maintained together with the delta
+    private transient Map<PDAState, List<PDATransition>> incoming;
+    private transient Map<PDATransition, List<PDAOperation>> indexedOperations;
+    private transient Map<PDAState, Map<Integer, Integer>> operationCounts;
+    private transient Map<PDAState, Map<Character, int[]>> topCounts;
+    private transient Map<Character, Integer> alphabetCounts;
+    private transient Map<Character, Integer> stackAlphabetCounts;
+    private transient int nondeterministicKeys;
+    private transient int epsilonConflicts;
+    
     private transient boolean transitionControlPointsVisible;
     
     public PDA() {
@@ -85,247 +89,314 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
         this.type = PDAType.EMPTY;
     }
     
+    /**
+     * Creates a builder to construct a Pushdown Automaton with many states and
+     * transitions at once, using the default stack starting symbol.
+     * 
+     * @return A new builder.
+     */
+    public static PDABuilder builder() {
+        return new PDABuilder( CharacterConstants.STACK_STARTING_SYMBOL );
+    }
+    
+    /**
+     * Creates a builder to construct a Pushdown Automaton with many states and
+     * transitions at once.
+     * 
+     * @param startingSymbol The stack starting symbol.
+     * @return A new builder.
+     */
+    public static PDABuilder builder( char startingSymbol ) {
+        return new PDABuilder( startingSymbol );
+    }
+    
     public boolean accepts( String str, PDAAcceptanceType acceptanceType ) {
-        return accepts( str, acceptanceType, null );
+        return accepts( str, acceptanceType, (List<PDASimulationStep>) null );
+    }
+    
+    public boolean accepts( String str, PDAAcceptanceType acceptanceType, PDAExecutionMode mode ) {
+        return execute( str, acceptanceType, mode ).isAccepted();
+    }
+    
+    /**
+     * Executes the PDA using a given execution mode.
+     * 
+     * The ID_TREE mode builds the id tree, that can be obtained from the
+     * result. The CONFIGURATION_SEARCH mode does not build the tree,
+     * expanding each distinct configuration only once. The HEADLESS mode
+     * does the same, but without linking the configurations, and decides the
+     * string using the grammar when the search is cut off, so its result is
+     * always conclusive. For a DPDA it follows the only possible path
+     * instead, without depth limits. The GRAMMAR mode converts the PDA to a
+     * Context-Free Grammar and parses the string, so it runs in polynomial
+     * time even when the configurations are unbounded. The PARALLEL mode
+     * works like CONFIGURATION_SEARCH, but explores the branches of the
+     * nondeterministic choices in parallel.
+     * 
+     * A rejection is conclusive only if the result is exhaustive. To test
+     * many strings with the same mode, use a PDAExecutor, that creates the
+     * deterministic executor or the grammar only once.
+     * 
+     * @param str The string to be tested.
+     * @param acceptanceType The acceptance type.
+     * @param mode The execution mode.
+     * @return The result of the execution.
+     */
+    public PDASearchResult execute( String str, PDAAcceptanceType acceptanceType, PDAExecutionMode mode ) {
+        return new PDAExecutor( this, acceptanceType, mode ).execute( str );
     }
     
     public boolean accepts( String str, PDAAcceptanceType acceptanceType, List<PDASimulationStep> simulationSteps ) {
         
-        accepted = false;
-        acceptForSimulation = false;
-        firstAcceptedId = null;
-        
-        if ( simulationSteps != null ) {
-            acceptForSimulation = true;
+        PDASearchResult result = buildIDTree( str, acceptanceType, 
+                PDASearchLimits.getDefaultLimits(), simulationSteps != null );
+            
+        if ( result.getFirstAcceptedId() != null ) {
+
+            List<PDAID> pathIds = new ArrayList<>();
+
+            PDAID current = result.getFirstAcceptedId();
+            while ( current != null ) {
+                pathIds.add( current );
+                current = current.getParent();
+            }
+
+            for ( int i = pathIds.size()-1; i >= 0; i-- ) {
+                simulationSteps.add( new PDASimulationStep( pathIds.get( i ) ) );
+            }
+
         }
         
+        return result.isAccepted();
+        
+    }
+    
+    /**
+     * Builds the id tree of a string. The tree is kept only in the returned
+     * result, so the same PDA can be executed by several threads at the same
+     * time, as long as it is not modified meanwhile.
+     * 
+     * The tree is built depth-first using an explicit frontier, so its depth
+     * is not bounded by the JVM stack, but only by the given limits.
+     * 
+     * @param str The string to be tested.
+     * @param acceptanceType The acceptance type.
+     * @param limits The depth and node budgets of this search.
+     * @param stopAtFirstAcceptance If the ids after the first accepting one
+     * should not be expanded.
+     * @return The result of the search.
+     */
+    public PDASearchResult buildIDTree( String str, PDAAcceptanceType acceptanceType, 
+            PDASearchLimits limits, boolean stopAtFirstAcceptance ) {
+        
+        PDASearchResult result = new PDASearchResult();
+        result.setLimits( limits );
+        
         if ( canExecute() ) {
             
-            Map<PDAState, List<PDATransition>> delta = getDelta();
-            Deque<Character> stack = new ArrayDeque<>();
-            stack.push( stackStartingSymbol );
+            PDAID rootId = new PDAID( initialState, str, 
+                    PDAStack.empty().push( stackStartingSymbol ), null, Color.BLACK );
+            result.setRootId( rootId );
+            
+            buildIDTree( rootId, getDelta(), acceptanceType, limits, 
+                    stopAtFirstAcceptance, result );
             
-            rootId = new PDAID( initialState, str, stack, null, Color.BLACK );
+        }
+        
+        return result;
+        
+    }
+    
+    private void buildIDTree( PDAID root, Map<PDAState, List<PDATransition>> delta, 
+            PDAAcceptanceType acceptanceType, PDASearchLimits limits, 
+            boolean stopAtFirstAcceptance, PDASearchResult result ) {
+        
+        List<PDAID> visited = result.getIds();
+        Deque<PDAID> frontier = new ArrayDeque<>();
+        frontier.push( root );
+        
+        while ( !frontier.isEmpty() ) {
             
-            buildTreeLevel = 0;
-            ids = new ArrayList<>();
-            buildIDTree( rootId, delta, acceptanceType );
+            PDAID node = frontier.pop();
             
-            if ( firstAcceptedId != null ) {
-                
-                List<PDAID> pathIds = new ArrayList<>();
-                
-                PDAID current = firstAcceptedId;
-                while ( current != null ) {
-                    pathIds.add( current );
-                    current = current.getParent();
-                }
+            if ( visited.size() >= limits.getMaxNodes() ) {
                 
-                for ( int i = pathIds.size()-1; i >= 0; i-- ) {
-                    simulationSteps.add( new PDASimulationStep( pathIds.get( i ) ) );
+                // the remaining ids were never visited, so they are detached
+                // from the tree too
+                result.setNodeLimitReached( true );
+                detachFromTree( node );
+                while ( !frontier.isEmpty() ) {
+                    detachFromTree( frontier.pop() );
                 }
+                break;
                 
             }
             
-        }
-        
-        return accepted;
-        
-    }
-    
-    private void buildIDTree( PDAID node, Map<PDAState, List<PDATransition>> delta, PDAAcceptanceType acceptanceType ) {
-
-        // avoids StackOverflowErrors caused by empty (epsilon) transition
-        // cycles. the recursion is aborted when:
-        //   1) the current configuration (state, remaining string and stack) is
-        //      already present in the path from the root, meaning a cycle that
-        //      cannot lead to a new acceptance was found (the equal ancestor
-        //      already performed the acceptance test and expanded the children); or
-        //   2) the maximum level is reached, a backstop for cycles that keep
-        //      growing the stack and so never repeat the exact same configuration
-        if ( isConfigurationInPath( node ) ||
-                buildTreeLevel >= ApplicationConstants.PUSHDOWN_AUTOMATON_MAX_LEVEL ) {
-            // this node closes a cycle (or hit the backstop) and won't be
-            // expanded, so it is detached from its parent to avoid drawing a
+            // avoids running forever with empty (epsilon) transition cycles.
+            // the id is not expanded when:
+            //   1) its configuration (state, remaining string and stack) is
+            //      already present in the path from the root, meaning a cycle
+            //      that cannot lead to a new acceptance was found (the equal
+            //      ancestor already performed the acceptance test and expanded
+            //      the children); or
+            //   2) the maximum depth is reached, a backstop for cycles that keep
+            //      growing the stack and so never repeat the exact same
+            //      configuration
+            // in both cases it is detached from its parent to avoid drawing a
             // spurious id and its incoming edge in the id tree
-            if ( node.getParent() != null ) {
-                node.getParent().getChildren().remove( node );
+            if ( isConfigurationInPath( node ) ) {
+                detachFromTree( node );
+                continue;
             }
-            return;
-        }
-
-        if ( node.getString().isEmpty() ) {
             
-            if ( acceptanceType == PDAAcceptanceType.FINAL_STATE && node.getState().isFinal() ) {
-                
-                node.setAcceptedByFinalState( true );
-                accepted = true;
-                
-                // finds only one solution path
-                if ( acceptForSimulation ) {
-                    firstAcceptedId = node;
-                    ids.add( node );
-                    return;
+            if ( node.getLevel() >= limits.getMaxDepth() ) {
+                result.setDepthLimitReached( true );
+                detachFromTree( node );
+                continue;
+            }
+            
+            if ( node.isInputConsumed() ) {
+
+                if ( acceptanceType == PDAAcceptanceType.FINAL_STATE && node.getState().isFinal() ) {
+                    node.setAcceptedByFinalState( true );
+                    result.setAccepted( true );
+                } else if ( acceptanceType == PDAAcceptanceType.EMPTY_STACK && node.getStack().isEmpty() ) {
+                    node.setAcceptedByEmptyStack( true );
+                    result.setAccepted( true );
                 }
                 
-            } else if ( acceptanceType == PDAAcceptanceType.EMPTY_STACK && node.getStack().isEmpty() ) {
-                
-                node.setAcceptedByEmptyStack( true );
-                accepted = true;
-                
-                if ( acceptForSimulation ) {
-                    firstAcceptedId = node;
-                    ids.add( node );
-                    return;
+                // finds only one solution path
+                if ( stopAtFirstAcceptance && result.isAccepted() && 
+                        result.getFirstAcceptedId() == null ) {
+                    result.setFirstAcceptedId( node );
                 }
-                
+
+            }
+
+            visited.add( node );
+
+            // the ids that were already created when the first accepting id
+            // was found are kept in the tree, but not expanded
+            if ( result.getFirstAcceptedId() != null ) {
+                continue;
+            }
+            
+            expand( node, delta );
+            
+            // the first child must be the first to be visited
+            List<PDAID> children = node.getChildren();
+            for ( int i = children.size() - 1; i >= 0; i-- ) {
+                frontier.push( children.get( i ) );
             }
             
         }
         
-        ids.add( node );
-        buildTreeLevel++;
+    }
+    
+    /**
+     * Creates the children of an id, one for each operation that can be
+     * applied to its configuration.
+     */
+    private void expand( PDAID node, Map<PDAState, List<PDATransition>> delta ) {
         
-        // found the first leaf when is collecting data for simulation
-        if ( firstAcceptedId != null ) {
-            return;
-        }
+        String indent = DEBUG ? levelString.repeat( node.getLevel() + 1 ) : null;
         
         if ( DEBUG ) {
-            System.out.println( levelString.repeat( buildTreeLevel ) + "Processing: " + node );
+            System.out.println( indent + "Processing: " + node );
         }
 
-        String string = node.getString();
+        String input = node.getInput();
+        int offset = node.getOffset();
 
         for ( PDATransition t : delta.get( node.getState() ) ) {
 
             if ( DEBUG ) {
-                System.out.println( levelString.repeat( buildTreeLevel ) + "  Transition: " + t );
+                System.out.println( indent + "  Transition: " + t );
             }
 
             for ( PDAOperation o : t.getOperations() ) {
 
                 if ( DEBUG ) {
-                    System.out.println( levelString.repeat( buildTreeLevel ) + "    Operation: " + o );
+                    System.out.println( indent + "    Operation: " + o );
                 }
 
+                int newOffset;
+                
                 // matches symbol
-                if ( !string.isEmpty() && o.getSymbol() == string.charAt( 0 ) ) {
+                if ( offset < input.length() && o.getSymbol() == input.charAt( offset ) ) {
 
                     if ( DEBUG ) {
-                        System.out.println( levelString.repeat( buildTreeLevel ) + "      Matches symbol: " + o.getSymbol() );
-                    }
-
-                    Deque<Character> stack = Utils.cloneCharacterStack( node.getStack() );
-
-                    // matches stack top
-                    if ( !stack.isEmpty() && o.getTop() == stack.peek() ) {
-
-                        if ( DEBUG ) {
-                            System.out.println( levelString.repeat( buildTreeLevel ) + "      Matches stack top: " + o.getTop() );
-                        }
-
-                        // consumes the input symbol
-                        String newString = string.substring( 1 );
-
-                        // updates the stack
-                        processStack( o, stack );
-
-                        PDAID newId = new PDAID( t.getTargetState(), 
-                                newString, stack, o, t.getStrokeColor() );
-                        node.addChild( newId );
-
-                        buildIDTree( newId, delta, acceptanceType );
-
-                        // empty stack?
-                    } else if ( o.getTop() == CharacterConstants.EMPTY_STRING && stack.isEmpty() ) {
-
-                        if ( DEBUG ) {
-                            System.out.println( levelString.repeat( buildTreeLevel ) + "      Matches empty stack" );
-                        }
-
-                        String newString = string.substring( 1 );
-                        processStack( o, stack );
-
-                        PDAID newId = new PDAID( t.getTargetState(),
-                                newString, stack, o, t.getStrokeColor() );
-                        node.addChild( newId );
-
-                        buildIDTree( newId, delta, acceptanceType );
-
+                        System.out.println( indent + "      Matches symbol: " + o.getSymbol() );
                     }
+                    
+                    // consumes the input symbol
+                    newOffset = offset + 1;
 
                     // empty transition 
                 } else if ( o.getSymbol() == CharacterConstants.EMPTY_STRING ) {
 
                     if ( DEBUG ) {
-                        System.out.println( levelString.repeat( buildTreeLevel ) + "      Empty transition" );
+                        System.out.println( indent + "      Empty transition" );
                     }
+                    
+                    // don't consume any symbol
+                    newOffset = offset;
+                    
+                } else {
+                    continue;
+                }
+                
+                PDAStack stack = node.getStack();
 
-                    Deque<Character> stack = Utils.cloneCharacterStack( node.getStack() );
-
-                    // matches stack top
-                    if ( !stack.isEmpty() && o.getTop() == stack.peek() ) {
-
-                        if ( DEBUG ) {
-                            System.out.println( levelString.repeat( buildTreeLevel ) + "      Matches stack top: " + o.getTop() );
-                        }
-
-                        // don't consume any symbol
-
-                        // updates the stack
-                        processStack( o, stack );
-
-                        PDAID newId = new PDAID( t.getTargetState(), 
-                                string, stack, o, t.getStrokeColor() );
-                        node.addChild( newId );
-
-                        buildIDTree( newId, delta, acceptanceType );
-
-                        // empty stack?
-                    } else if ( o.getTop() == CharacterConstants.EMPTY_STRING && stack.isEmpty() ) {
-
-                        if ( DEBUG ) {
-                            System.out.println( levelString.repeat( buildTreeLevel ) + "      Matches empty stack" );
-                        }
-
-                        // empty transition: don't consume any symbol
-                        processStack( o, stack );
+                // matches stack top
+                if ( !stack.isEmpty() && o.getTop() == stack.peek() ) {
 
-                        PDAID newId = new PDAID( t.getTargetState(),
-                                string, stack, o, t.getStrokeColor() );
-                        node.addChild( newId );
+                    if ( DEBUG ) {
+                        System.out.println( indent + "      Matches stack top: " + o.getTop() );
+                    }
 
-                        buildIDTree( newId, delta, acceptanceType );
+                    // empty stack?
+                } else if ( o.getTop() == CharacterConstants.EMPTY_STRING && stack.isEmpty() ) {
 
+                    if ( DEBUG ) {
+                        System.out.println( indent + "      Matches empty stack" );
                     }
 
+                } else {
+                    continue;
                 }
+                
+                node.addChild( new PDAID( t.getTargetState(), input, newOffset, 
+                        processStack( o, stack ), o, t.getStrokeColor() ) );
 
             }
 
         }
-
-        buildTreeLevel--;
         
     }
     
+    private void detachFromTree( PDAID node ) {
+        if ( node.getParent() != null ) {
+            node.getParent().getChildren().remove( node );
+        }
+    }
+    
     /**
      * Verifies if the configuration of the given id (state, remaining string
      * and stack) is equal to the configuration of one of its ancestors in the
-     * id tree. PDAID.toString() encodes exactly these three pieces of data, so
-     * it is used as the configuration key.
+     * id tree. The input offset never decreases along a path, so only the
+     * ancestors that didn't consume any symbol since then need to be verified,
+     * and their precomputed configuration hashes discard most of them.
      *
      * @param node The id to be verified.
      * @return true if an ancestor has the same configuration, false otherwise.
      */
     private boolean isConfigurationInPath( PDAID node ) {
 
-        String configuration = node.toString();
         PDAID ancestor = node.getParent();
 
-        while ( ancestor != null ) {
-            if ( ancestor.toString().equals( configuration ) ) {
+        while ( ancestor != null && ancestor.getOffset() == node.getOffset() ) {
+            if ( ancestor.hasSameConfiguration( node ) ) {
                 return true;
             }
             ancestor = ancestor.getParent();
@@ -335,27 +406,21 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
 
     }
 
-    private void processStack( PDAOperation op, Deque<Character> stack ) {
+    private PDAStack processStack( PDAOperation op, PDAStack stack ) {
         
         switch ( op.getType() ) {
             case DO_NOTHING:
                 break;
             case POP:
-                stack.pop();
-                break;
+                return stack.pop();
             case PUSH:
-                for ( Character s : op.getSymbolsToPush() ) {
-                    stack.push( s );
-                }
-                break;
+                return stack.push( op.getSymbolsToPush() );
             case REPLACE:
-                stack.pop();
-                for ( Character s : op.getSymbolsToPush() ) {
-                    stack.push( s );
-                }
-                break;
+                return stack.pop().push( op.getSymbolsToPush() );
         }
         
+        return stack;
+        
     }
 
     public boolean canExecute() {
@@ -462,10 +527,12 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
                 initialState = state;
             }
             
+            ensureIndex();
+            indexState( state );
+            
         }
         
-        markAllCachesAsObsolete();
-        updateType();
+        refreshType();
         
     }
     
@@ -473,11 +540,14 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
         
         if ( transition != null ) {
             
+            ensureIndex();
+            indexState( transition.getOriginState() );
+            indexState( transition.getTargetState() );
+            
             PDATransition tf = null;
             
-            for ( PDATransition t : transitions ) {
-                if ( t.getOriginState() == transition.getOriginState() && 
-                        t.getTargetState() == transition.getTargetState() ) {
+            for ( PDATransition t : delta.get( transition.getOriginState() ) ) {
+                if ( t.getTargetState() == transition.getTargetState() ) {
                     tf = t;
                     break;
                 }
@@ -486,14 +556,37 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
             if ( tf == null ) {
                 transition.setControlPointsVisible( transitionControlPointsVisible );
                 transitions.add( transition );
+                indexTransition( transition );
             } else {
                 tf.addOperations( transition.getOperations() );
+                reindexTransition( tf );
             }
             
         }
         
         updateTransitions();
-        markAllCachesAsObsolete();
+        refreshType();
+        
+    }
+    
+    /**
+     * Adds the states and the already merged transitions of a builder,
+     * computing the type, the caches and the geometry only once.
+     */
+    void addAll( List<PDAState> states, List<PDATransition> transitions, PDAState initialState ) {
+        
+        this.states.addAll( states );
+        this.transitions.addAll( transitions );
+        
+        if ( initialState != null ) {
+            this.initialState = initialState;
+        }
+        
+        for ( PDATransition t : transitions ) {
+            t.setControlPointsVisible( transitionControlPointsVisible );
+        }
+        
+        updateTransitions();
         updateType();
         
     }
@@ -552,8 +645,8 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
         
         this.initialState = initialState;
         
-        markAllCachesAsObsolete();
-        updateType();
+        // the index doesn't depend on the initial state
+        refreshType();
         
     }
 
@@ -567,96 +660,71 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     
     public void removeState( PDAState state ) {
         
+        ensureIndex();
+        
         if ( initialState == state ) {
             initialState = null;
         }
         
         states.remove( state );
         
-        List<PDATransition> ts = new ArrayList<>();
-        for ( PDATransition t : transitions ) {
-            if ( t.getOriginState() == state || t.getTargetState() == state ) {
-                ts.add( t );
-            }
+        Set<PDATransition> ts = new HashSet<>();
+        if ( delta.containsKey( state ) ) {
+            ts.addAll( delta.get( state ) );
+            ts.addAll( incoming.get( state ) );
         }
         
-        for ( PDATransition t : ts ) {
-            transitions.remove( t );
+        if ( !ts.isEmpty() ) {
+            transitions.removeIf( t -> ts.contains( t ) );
+            for ( PDATransition t : ts ) {
+                unindexTransition( t );
+            }
         }
         
-        markAllCachesAsObsolete();
-        updateType();
+        unindexState( state );
+        refreshType();
         
     }
     
     public void removeTransition( PDATransition transition ) {
-        transitions.remove( transition );
-        markAllCachesAsObsolete();
-        updateType();
+        
+        ensureIndex();
+        
+        if ( transitions.remove( transition ) ) {
+            unindexTransition( transition );
+        }
+        
+        refreshType();
+        
     }
     
+    /**
+     * Recomputes the type and rebuilds all the caches from scratch. Must be
+     * used after changing the operations of a transition directly, since
+     * these changes are not tracked by the incremental index.
+     */
     public void updateType() {
+        markAllCachesAsObsolete();
+        refreshType();
+    }
+    
+    /**
+     * Updates the type using the determinism counters of the index. A PDA
+     * is deterministic if there is at most one operation for each state,
+     * symbol and stack top and if no state that has an operation consuming
+     * a symbol with some stack top has an epsilon operation with the same
+     * stack top.
+     */
+    private void refreshType() {
         
         if ( states.isEmpty() ) {
             type = PDAType.EMPTY;
             return;
         }
         
-        Map<String, Integer> counts = new HashMap<>();
-        Map<String, String> mirror = new HashMap<>();
-        boolean epsilon = false;
-        boolean nondeterminism = false;
-        
-        String sepLeft = "-<|";
-        String sepRight = "|>-";
-        String lookEp = String.format( "%s%c%s", sepLeft,
-                CharacterConstants.EMPTY_STRING, sepRight );
-        
-        for ( PDATransition t : transitions ) {
-            
-            for ( PDAOperation o : t.getOperations() ) {
-                
-                String k = String.format( "%s-%s%c%s-%c", 
-                        t.getOriginState(), sepLeft, 
-                        o.getSymbol(), sepRight, o.getTop() );
-                String kEp = String.format( "%s-%s%c%s-%c", 
-                        t.getOriginState(), sepLeft, 
-                        CharacterConstants.EMPTY_STRING, sepRight, o.getTop() );
-                
-                Integer v = counts.get( k );
-                counts.put( k, v == null ? 1 : v+1 );
-                
-                if ( !counts.containsKey( kEp ) ) {
-                    counts.put( kEp, 0 );
-                }
-                
-                mirror.put( k, kEp );
-                mirror.put( kEp, k );
-                
-            }
-            
-        }
-        
-        for ( Map.Entry<String, Integer> e : counts.entrySet() ) {
-            
-            if ( e.getValue() > 1 ) {
-                nondeterminism = true;
-                break;
-            }
-            
-            String k1 = e.getKey();
-            String k2 = mirror.get( k1 );
-            
-            if ( !k1.contains( lookEp ) && k2 != null ) {
-                Integer c = counts.get( k2 );
-                if ( c != null && c > 0 ) {
-                    epsilon = true;
-                }
-            }
-            
-        }
+        ensureIndex();
         
-        if ( nondeterminism || epsilon ) {
+        if ( nondeterministicKeys > 0 || epsilonConflicts > 0 ) {
             type = PDAType.PDA;
         } else {
             type = PDAType.DPDA;
@@ -664,6 +732,24 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
         
     }
     
+    /**
+     * Verifies if the PDA is deterministic using the current transitions,
+     * even if the type was not updated.
+     * 
+     * @return true if the PDA has states and is deterministic, false
+     * otherwise.
+     */
+    public synchronized boolean isDeterministic() {
+        
+        if ( states.isEmpty() ) {
+            return false;
+        }
+        
+        ensureIndex();
+        return nondeterministicKeys == 0 && epsilonConflicts == 0;
+        
+    }
+    
     public String getFormalDefinition() {
         
         String def = String.format("P = { Q, %c, %c, %c, %s, %c, F }\n",
@@ -684,18 +770,9 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     public Set<Character> getAlphabet() {
         
         if ( alphabet == null || !alphabetUpToDate ) {
-            
+            ensureIndex();
             alphabetUpToDate = true;
-            alphabet = new TreeSet<>();
-        
-            for ( PDATransition t : transitions ) {
-                for ( PDAOperation o : t.getOperations() ) {
-                    if ( o.getSymbol() != CharacterConstants.EMPTY_STRING ) {
-                        alphabet.add( o.getSymbol() );
-                    }
-                }
-            }
-        
+            alphabet = new TreeSet<>( alphabetCounts.keySet() );
         }
         
         return alphabet;
@@ -705,47 +782,273 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     public Set<Character> getStackAlphabet() {
         
         if ( stackAlphabet == null || !stackAlphabetUpToDate ) {
-            
+            ensureIndex();
             stackAlphabetUpToDate = true;
-            
-            stackAlphabet = new TreeSet<>();
+            stackAlphabet = new TreeSet<>( stackAlphabetCounts.keySet() );
             stackAlphabet.add( stackStartingSymbol );
-        
-            for ( PDATransition t : transitions ) {
-                for ( PDAOperation o : t.getOperations() ) {
-                    if ( o.getTop() != CharacterConstants.EMPTY_STRING ) {
-                        stackAlphabet.add( o.getTop() );
-                    }
-                    stackAlphabet.addAll( o.getSymbolsToPush() );
-                }
-            }
-        
         }
         
         return stackAlphabet;
         
     }
     
-    public Map<PDAState, List<PDATransition>> getDelta() {
+    /**
+     * Gets the delta, building the index if it is obsolete. It is synchronized
+     * so concurrent executions of the same machine build it only once and
+     * see it completely built.
+     */
+    public synchronized Map<PDAState, List<PDATransition>> getDelta() {
+        ensureIndex();
+        return delta;
+    }
+    
+    /**
+     * Builds the delta and the rest of the incremental index if they are
+     * obsolete. After that, the mutation methods keep them updated visiting
+     * only the affected states and transitions.
+     */
+    private void ensureIndex() {
         
         if ( delta == null || !deltaUpToDate ) {
             
             deltaUpToDate = true;
             
-            delta = new TreeMap<>();
+            // the caches derived from the index are rebuilt on demand
+            alphabetUpToDate = false;
+            stackAlphabetUpToDate = false;
+            
+            delta = new LinkedHashMap<>();
+            incoming = new HashMap<>();
+            indexedOperations = new HashMap<>();
+            operationCounts = new HashMap<>();
+            topCounts = new HashMap<>();
+            alphabetCounts = new HashMap<>();
+            stackAlphabetCounts = new HashMap<>();
+            nondeterministicKeys = 0;
+            epsilonConflicts = 0;
+            
             for ( PDAState s : states ) {
-                delta.put( s, new ArrayList<>() );
+                indexState( s );
             }
-
+            
             for ( PDATransition t : transitions ) {
-                List<PDATransition> ts = delta.get( t.getOriginState() );
-                ts.add( t );
+                indexTransition( t );
             }
             
         }
         
-        return delta;
+    }
+    
+    private void indexState( PDAState state ) {
+        
+        if ( !delta.containsKey( state ) ) {
+            delta.put( state, new ArrayList<>() );
+            incoming.put( state, new ArrayList<>() );
+            operationCounts.put( state, new HashMap<>() );
+            topCounts.put( state, new HashMap<>() );
+        }
+        
+    }
+    
+    private void unindexState( PDAState state ) {
+        delta.remove( state );
+        incoming.remove( state );
+        operationCounts.remove( state );
+        topCounts.remove( state );
+    }
+    
+    private void indexTransition( PDATransition transition ) {
+        
+        PDAState origin = transition.getOriginState();
+        
+        indexState( origin );
+        indexState( transition.getTargetState() );
+        delta.get( origin ).add( transition );
+        incoming.get( transition.getTargetState() ).add( transition );
+        
+        // the indexed operations are copies, so a later removal subtracts
+        // exactly what was added
+        List<PDAOperation> operations = copyOperations( transition.getOperations() );
+        indexedOperations.put( transition, operations );
+        addOperationsToIndex( origin, operations );
+        
+    }
+    
+    private void reindexTransition( PDATransition transition ) {
+        
+        List<PDAOperation> oldOperations = indexedOperations.get( transition );
+        List<PDAOperation> newOperations = copyOperations( transition.getOperations() );
+        
+        List<PDAOperation> removed = new ArrayList<>( oldOperations );
+        removed.removeAll( newOperations );
+        List<PDAOperation> added = new ArrayList<>( newOperations );
+        added.removeAll( oldOperations );
+        
+        indexedOperations.put( transition, newOperations );
+        removeOperationsFromIndex( transition.getOriginState(), removed );
+        addOperationsToIndex( transition.getOriginState(), added );
+        
+    }
+    
+    private void unindexTransition( PDATransition transition ) {
+        
+        List<PDAOperation> operations = indexedOperations.remove( transition );
+        
+        if ( operations != null ) {
+            delta.get( transition.getOriginState() ).remove( transition );
+            incoming.get( transition.getTargetState() ).remove( transition );
+            removeOperationsFromIndex( transition.getOriginState(), operations );
+        }
+        
+    }
+    
+    private List<PDAOperation> copyOperations( List<PDAOperation> operations ) {
+        
+        List<PDAOperation> copies = new ArrayList<>();
+        
+        for ( PDAOperation o : operations ) {
+            copies.add( new PDAOperation( o.getSymbol(), o.getTop(), o.getType(), 
+                    new ArrayList<>( o.getSymbolsToPush() ) ) );
+        }
         
+        return copies;
+        
+    }
+    
+    private void addOperationsToIndex( PDAState origin, List<PDAOperation> operations ) {
+        
+        Map<Integer, Integer> counts = operationCounts.get( origin );
+        Map<Character, int[]> tops = topCounts.get( origin );
+        
+        for ( PDAOperation o : operations ) {
+            
+            int key = ( o.getSymbol() << 16 ) | o.getTop();
+            Integer v = counts.get( key );
+            v = v == null ? 1 : v+1;
+            counts.put( key, v );
+            
+            if ( v == 2 ) {
+                nondeterministicKeys++;
+            }
+            
+            // [0]: epsilon operations, [1]: operations consuming a symbol
+            int[] tc = tops.get( o.getTop() );
+            if ( tc == null ) {
+                tc = new int[2];
+                tops.put( o.getTop(), tc );
+            }
+            
+            boolean conflict = tc[0] > 0 && tc[1] > 0;
+            
+            if ( o.getSymbol() == CharacterConstants.EMPTY_STRING ) {
+                tc[0]++;
+            } else {
+                tc[1]++;
+                if ( incrementCount( alphabetCounts, o.getSymbol() ) && alphabetUpToDate ) {
+                    alphabet.add( o.getSymbol() );
+                }
+            }
+            
+            if ( !conflict && tc[0] > 0 && tc[1] > 0 ) {
+                epsilonConflicts++;
+            }
+            
+            if ( o.getTop() != CharacterConstants.EMPTY_STRING ) {
+                addToStackAlphabet( o.getTop() );
+            }
+            
+            for ( char c : o.getSymbolsToPush() ) {
+                addToStackAlphabet( c );
+            }
+            
+        }
+        
+    }
+    
+    private void removeOperationsFromIndex( PDAState origin, List<PDAOperation> operations ) {
+        
+        Map<Integer, Integer> counts = operationCounts.get( origin );
+        Map<Character, int[]> tops = topCounts.get( origin );
+        
+        for ( PDAOperation o : operations ) {
+            
+            int key = ( o.getSymbol() << 16 ) | o.getTop();
+            int v = counts.get( key ) - 1;
+            if ( v == 0 ) {
+                counts.remove( key );
+            } else {
+                counts.put( key, v );
+            }
+            
+            if ( v == 1 ) {
+                nondeterministicKeys--;
+            }
+            
+            int[] tc = tops.get( o.getTop() );
+            boolean conflict = tc[0] > 0 && tc[1] > 0;
+            
+            if ( o.getSymbol() == CharacterConstants.EMPTY_STRING ) {
+                tc[0]--;
+            } else {
+                tc[1]--;
+                if ( decrementCount( alphabetCounts, o.getSymbol() ) && alphabetUpToDate ) {
+                    alphabet.remove( o.getSymbol() );
+                }
+            }
+            
+            if ( conflict && !( tc[0] > 0 && tc[1] > 0 ) ) {
+                epsilonConflicts--;
+            }
+            
+            if ( tc[0] == 0 && tc[1] == 0 ) {
+                tops.remove( o.getTop() );
+            }
+            
+            if ( o.getTop() != CharacterConstants.EMPTY_STRING ) {
+                removeFromStackAlphabet( o.getTop() );
+            }
+            
+            for ( char c : o.getSymbolsToPush() ) {
+                removeFromStackAlphabet( c );
+            }
+            
+        }
+        
+    }
+    
+    private void addToStackAlphabet( char symbol ) {
+        if ( incrementCount( stackAlphabetCounts, symbol ) && stackAlphabetUpToDate ) {
+            stackAlphabet.add( symbol );
+        }
+    }
+    
+    private void removeFromStackAlphabet( char symbol ) {
+        if ( decrementCount( stackAlphabetCounts, symbol ) && stackAlphabetUpToDate && 
+                symbol != stackStartingSymbol ) {
+            stackAlphabet.remove( symbol );
+        }
+    }
+    
+    /**
+     * @return true if the symbol was not counted before.
+     */
+    private static boolean incrementCount( Map<Character, Integer> counts, char symbol ) {
+        Integer v = counts.get( symbol );
+        counts.put( symbol, v == null ? 1 : v+1 );
+        return v == null;
+    }
+    
+    /**
+     * @return true if the symbol is not counted anymore.
+     */
+    private static boolean decrementCount( Map<Character, Integer> counts, char symbol ) {
+        int v = counts.get( symbol ) - 1;
+        if ( v == 0 ) {
+            counts.remove( symbol );
+            return true;
+        }
+        counts.put( symbol, v );
+        return false;
     }
     
     private String getStatesString() {
@@ -883,18 +1186,18 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
     }
     
     public void setStackStartingSymbol( char stackStartingSymbol ) {
+        
+        if ( stackAlphabetUpToDate ) {
+            if ( !stackAlphabetCounts.containsKey( this.stackStartingSymbol ) ) {
+                stackAlphabet.remove( this.stackStartingSymbol );
+            }
+            stackAlphabet.add( stackStartingSymbol );
+        }
+        
         this.stackStartingSymbol = stackStartingSymbol;
-        markAllCachesAsObsolete();
-    }
-
-    public PDAID getRootId() {
-        return rootId;
+        
     }
 
-    public List<PDAID> getIds() {
-        return ids;
-    }
-    
     public void deactivateAllStatesInSimulation() {
         for ( PDAState s : states ) {
             s.setActiveInSimulation( false );
@@ -1018,15 +1321,18 @@ public class PDA extends AbstractGeometricForm implements Cloneable {
         
         PDA c = (PDA) super.clone();
         Map<PDAState, PDAState> ref = new HashMap<>();
-    
+        
+        // the caches are shared after super.clone()
+        c.markAllCachesAsObsolete();
         c.states = new ArrayList<>();
+        c.transitions = new ArrayList<>();
+        
         for ( PDAState s : states ) {
             PDAState n = s.clone();
             c.addState( n );
             ref.put( s, n );
         }
         
-        c.transitions = new ArrayList<>();
         for ( PDATransition t : transitions ) {
             PDATransition n = t.clone();
             n.setOriginState( ref.get( t.getOriginState() ) );
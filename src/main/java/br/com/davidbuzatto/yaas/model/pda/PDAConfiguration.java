@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+/**
+ * A configuration (instantaneous description) of a Pushdown Automaton used
+ * by the configuration search: the current state, the offset of the next
+ * input symbol and the stack contents.
+ * 
+ * Two configurations are equal when state, offset and stack are equal. The
+ * parent, the applied operation and the depth are only used to rebuild the
+ * path and don't take part in the equality.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAConfiguration {
+    
+    private final PDAState state;
+    private final int offset;
+    private final PDAStack stack;
+    private final int hash;
+    
+    private final PDAConfiguration parent;
+    private final PDATransition transition;
+    private final PDAOperation operation;
+    private final int depth;
+    
+    public PDAConfiguration( PDAState state, int offset, PDAStack stack, 
+            PDAConfiguration parent, PDATransition transition, 
+            PDAOperation operation ) {
+        this( state, offset, stack, parent, transition, operation, 
+                parent == null ? 0 : parent.depth + 1 );
+    }
+    
+    /**
+     * Creates a configuration that is not linked to the one that originated
+     * it, so the configurations of a path can be discarded as soon as they
+     * are expanded.
+     * 
+     * @param state The current state.
+     * @param offset The offset of the next input symbol.
+     * @param stack The stack.
+     * @param depth The length of the path from the initial configuration.
+     */
+    public PDAConfiguration( PDAState state, int offset, PDAStack stack, int depth ) {
+        this( state, offset, stack, null, null, null, depth );
+    }
+    
+    private PDAConfiguration( PDAState state, int offset, PDAStack stack, 
+            PDAConfiguration parent, PDATransition transition, 
+            PDAOperation operation, int depth ) {
+        
+        this.state = state;
+        this.offset = offset;
+        this.stack = stack;
+        this.parent = parent;
+        this.transition = transition;
+        this.operation = operation;
+        this.depth = depth;
+        
+        int h = 7;
+        h = 31 * h + System.identityHashCode( state );
+        h = 31 * h + offset;
+        h = 31 * h + stack.hashCode();
+        this.hash = h;
+        
+    }
+
+    public PDAState getState() {
+        return state;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public PDAStack getStack() {
+        return stack;
+    }
+
+    public PDAConfiguration getParent() {
+        return parent;
+    }
+
+    public PDATransition getTransition() {
+        return transition;
+    }
+
+    public PDAOperation getOperation() {
+        return operation;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( obj == null ) {
+            return false;
+        }
+        if ( getClass() != obj.getClass() ) {
+            return false;
+        }
+        final PDAConfiguration other = (PDAConfiguration) obj;
+        if ( this.hash != other.hash ) {
+            return false;
+        }
+        if ( this.state != other.state ) {
+            return false;
+        }
+        if ( this.offset != other.offset ) {
+            return false;
+        }
+        return this.stack.equals( other.stack );
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "(%s, %d, %s)", state, offset, stack );
+    }
+    
+}
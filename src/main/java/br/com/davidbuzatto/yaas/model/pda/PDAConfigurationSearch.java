@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoized search over the configurations of a Pushdown Automaton.
+ * 
+ * The configurations are explored depth-first with an explicit work stack,
+ * in the same order used to build the id tree, but every configuration is
+ * expanded only once, no matter by how many paths it is reached. So the
+ * running time is proportional to the quantity of distinct configurations
+ * instead of the quantity of paths.
+ * 
+ * As in the id tree, the depth is limited to avoid running forever with
+ * epsilon cycles that keep growing the stack. A configuration reached again
+ * with a smaller depth is expanded again, since it can go further before
+ * hitting the limit.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAConfigurationSearch {
+    
+    private final PDA pda;
+    private final PDAAcceptanceType acceptanceType;
+    private final int maxDepth;
+    private final int maxConfigurations;
+    private final boolean keepPath;
+    
+    private PDAConfiguration acceptedConfiguration;
+    private String input;
+    private boolean depthLimitReached;
+    private boolean configurationLimitReached;
+    private int expandedConfigurations;
+    
+    public PDAConfigurationSearch( PDA pda, PDAAcceptanceType acceptanceType ) {
+        this( pda, acceptanceType, 
+                PDASearchLimits.getDefaultConfigurationSearchLimits(), true );
+    }
+    
+    /**
+     * Creates a search.
+     * 
+     * @param pda The Pushdown Automaton.
+     * @param acceptanceType The acceptance type.
+     * @param limits Maximum length of a path from the initial configuration
+     * and maximum quantity of distinct configurations that will be expanded.
+     * @param keepPath If each configuration should reference the one that
+     * originated it, so the accepting path can be rebuilt.
+     */
+    public PDAConfigurationSearch( PDA pda, PDAAcceptanceType acceptanceType, 
+            PDASearchLimits limits, boolean keepPath ) {
+        this.pda = pda;
+        this.acceptanceType = acceptanceType;
+        this.maxDepth = limits.getMaxDepth();
+        this.maxConfigurations = limits.getMaxNodes();
+        this.keepPath = keepPath;
+    }
+    
+    /**
+     * Decides if a string is accepted.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+        
+        input = str;
+        acceptedConfiguration = null;
+        depthLimitReached = false;
+        configurationLimitReached = false;
+        expandedConfigurations = 0;
+        
+        if ( !pda.canExecute() ) {
+            return false;
+        }
+        
+        Map<PDAState, List<PDATransition>> delta = pda.getDelta();
+        int length = str.length();
+        
+        // configuration -> smallest depth in which it was expanded
+        Map<PDAConfiguration, Integer> expanded = new HashMap<>();
+        Deque<PDAConfiguration> work = new ArrayDeque<>();
+        List<PDAConfiguration> children = new ArrayList<>();
+        
+        work.push( new PDAConfiguration( pda.getInitialState(), 0, 
+                PDAStack.empty().push( pda.getStackStartingSymbol() ), null, null, null ) );
+        
+        while ( !work.isEmpty() ) {
+            
+            PDAConfiguration c = work.pop();
+            
+            Integer depth = expanded.get( c );
+            if ( depth != null && depth <= c.getDepth() ) {
+                continue;
+            }
+            
+            if ( c.getDepth() >= maxDepth ) {
+                depthLimitReached = true;
+                continue;
+            }
+            
+            if ( depth == null && expanded.size() >= maxConfigurations ) {
+                configurationLimitReached = true;
+                break;
+            }
+            
+            expanded.put( c, c.getDepth() );
+            expandedConfigurations++;
+            
+            if ( isAccepting( c, length, acceptanceType ) ) {
+                acceptedConfiguration = c;
+                return true;
+            }
+            
+            children.clear();
+            expand( c, str, delta, keepPath, children );
+            
+            // the first child must be the first to be expanded
+            for ( int i = children.size() - 1; i >= 0; i-- ) {
+                work.push( children.get( i ) );
+            }
+            
+        }
+        
+        return false;
+        
+    }
+    
+    /**
+     * Verifies if a configuration accepts the input.
+     * 
+     * @param c The configuration.
+     * @param length The length of the input.
+     * @param acceptanceType The acceptance type.
+     * @return true if the input is consumed and the configuration satisfies
+     * the acceptance type, false otherwise.
+     */
+    static boolean isAccepting( PDAConfiguration c, int length, 
+            PDAAcceptanceType acceptanceType ) {
+        
+        if ( c.getOffset() != length ) {
+            return false;
+        }
+        
+        if ( acceptanceType == PDAAcceptanceType.FINAL_STATE ) {
+            return c.getState().isFinal();
+        }
+        
+        return c.getStack().isEmpty();
+        
+    }
+    
+    /**
+     * Creates the configurations reached from a configuration by one
+     * operation, in the same order used to build the id tree.
+     * 
+     * @param c The configuration.
+     * @param str The input.
+     * @param delta The transitions of each state.
+     * @param keepPath If the new configurations should reference c.
+     * @param children The list where the new configurations will be added.
+     */
+    static void expand( PDAConfiguration c, String str, 
+            Map<PDAState, List<PDATransition>> delta, boolean keepPath, 
+            List<PDAConfiguration> children ) {
+        
+        PDAStack stack = c.getStack();
+        int offset = c.getOffset();
+        int length = str.length();
+        char top = stack.isEmpty() ? 0 : stack.peek();
+        
+        for ( PDATransition t : delta.get( c.getState() ) ) {
+            for ( PDAOperation o : t.getOperations() ) {
+                
+                int newOffset;
+                
+                if ( offset < length && o.getSymbol() == str.charAt( offset ) ) {
+                    newOffset = offset + 1;
+                } else if ( o.getSymbol() == CharacterConstants.EMPTY_STRING ) {
+                    newOffset = offset;
+                } else {
+                    continue;
+                }
+                
+                // the stack top must match, or the operation must expect
+                // an empty stack
+                if ( !( !stack.isEmpty() && o.getTop() == top ) && 
+                        !( o.getTop() == CharacterConstants.EMPTY_STRING && stack.isEmpty() ) ) {
+                    continue;
+                }
+                
+                PDAStack newStack = processStack( o, stack );
+                
+                if ( newStack != null ) {
+                    if ( keepPath ) {
+                        children.add( new PDAConfiguration( t.getTargetState(), 
+                                newOffset, newStack, c, t, o ) );
+                    } else {
+                        children.add( new PDAConfiguration( t.getTargetState(), 
+                                newOffset, newStack, c.getDepth() + 1 ) );
+                    }
+                }
+                
+            }
+        }
+        
+    }
+    
+    /**
+     * Applies an operation to a stack.
+     * 
+     * @return The new stack or null if the operation can't be applied.
+     */
+    private static PDAStack processStack( PDAOperation op, PDAStack stack ) {
+        
+        switch ( op.getType() ) {
+            case DO_NOTHING:
+                return stack;
+            case POP:
+                if ( stack.isEmpty() ) {
+                    return null;
+                }
+                return stack.pop();
+            case PUSH:
+                return stack.push( op.getSymbolsToPush() );
+            case REPLACE:
+                if ( stack.isEmpty() ) {
+                    return null;
+                }
+                return stack.pop().push( op.getSymbolsToPush() );
+        }
+        
+        return null;
+        
+    }
+    
+    /**
+     * Builds the ids of the path from the initial configuration to the
+     * accepting configuration found by the last search.
+     * 
+     * @return The ids, from the root to the accepting one, or an empty list
+     * if the last string was rejected or the path was not kept.
+     */
+    public List<PDAID> getAcceptingPath() {
+        
+        List<PDAID> path = new ArrayList<>();
+        
+        if ( acceptedConfiguration == null || !keepPath ) {
+            return path;
+        }
+        
+        List<PDAConfiguration> configurations = new ArrayList<>();
+        for ( PDAConfiguration c = acceptedConfiguration; c != null; c = c.getParent() ) {
+            configurations.add( c );
+        }
+        Collections.reverse( configurations );
+        
+        PDAID parent = null;
+        
+        for ( PDAConfiguration c : configurations ) {
+            
+            PDAID id = new PDAID( c.getState(), input, c.getOffset(), 
+                    c.getStack(), c.getOperation(), 
+                    c.getTransition() == null ? Color.BLACK : c.getTransition().getStrokeColor() );
+            
+            if ( parent != null ) {
+                parent.addChild( id );
+            }
+            
+            path.add( id );
+            parent = id;
+            
+        }
+        
+        PDAID last = path.get( path.size() - 1 );
+        if ( acceptanceType == PDAAcceptanceType.FINAL_STATE ) {
+            last.setAcceptedByFinalState( true );
+        } else {
+            last.setAcceptedByEmptyStack( true );
+        }
+        
+        return path;
+        
+    }
+    
+    /**
+     * @return true if the last search explored all the reachable
+     * configurations, false if it was cut by the depth or the configuration
+     * limits.
+     */
+    public boolean isExhaustive() {
+        return !depthLimitReached && !configurationLimitReached;
+    }
+    
+    public boolean isDepthLimitReached() {
+        return depthLimitReached;
+    }
+    
+    public boolean isConfigurationLimitReached() {
+        return configurationLimitReached;
+    }
+    
+    public int getExpandedConfigurations() {
+        return expandedConfigurations;
+    }
+    
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.model.pda.algorithms.PDACommon;
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single path executor of a Deterministic Pushdown Automaton.
+ * 
+ * The operations are indexed by state, input symbol (or epsilon) and stack
+ * top (or epsilon for an empty stack) in a flat table built once, where the
+ * symbols and the tops are numbered densely from one (zero is epsilon), and the
+ * execution follows the only applicable operation of each configuration,
+ * changing one stack in place. So the acceptance is decided in time
+ * proportional to the quantity of moves, without depth limits.
+ * 
+ * An endless sequence of epsilon moves is detected when the same state and
+ * stack top are reached again by epsilon moves and the stack was never lower
+ * than in the first occurrence: the symbols below that top were never read,
+ * so from then on the machine repeats the same moves forever.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDADeterministicExecutor {
+    
+    // largest array that the virtual machines can allocate
+    private static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+    
+    private final PDAAcceptanceType acceptanceType;
+    private final int initialState;
+    private final char stackStartingSymbol;
+    private final boolean[] finalStates;
+    
+    // symbol/top character -> dense code, -1 if it is not used
+    private final int[] symbolCodes;
+    private final int[] topCodes;
+    private final int symbolCount;
+    private final int topCount;
+    
+    // ( state * symbolCount + symbol ) * topCount + top -> operation entry,
+    // -1 if there is no operation
+    private final int[] table;
+    private final int[] targets;
+    private final boolean[] pops;
+    private final int[][] pushes;
+    
+    /**
+     * Creates an executor.
+     * 
+     * @param pda The Pushdown Automaton. It must be deterministic.
+     * @param acceptanceType The acceptance type.
+     * @throws IllegalArgumentException If the PDA is not deterministic.
+     */
+    public PDADeterministicExecutor( PDA pda, PDAAcceptanceType acceptanceType ) 
+            throws IllegalArgumentException {
+        
+        if ( !pda.isDeterministic() ) {
+            throw new IllegalArgumentException( "The PDA must be deterministic." );
+        }
+        
+        PDACommon.validateInitialState( pda );
+        
+        this.acceptanceType = acceptanceType;
+        this.stackStartingSymbol = pda.getStackStartingSymbol();
+        
+        Map<PDAState, List<PDATransition>> delta = pda.getDelta();
+        List<PDAState> states = pda.getStates();
+        Map<PDAState, Integer> indexes = new HashMap<>();
+        finalStates = new boolean[states.size()];
+        
+        for ( int i = 0; i < states.size(); i++ ) {
+            indexes.put( states.get( i ), i );
+            finalStates[i] = states.get( i ).isFinal();
+        }
+        
+        initialState = indexes.get( pda.getInitialState() );
+        
+        int operations = 0;
+        for ( PDATransition t : pda.getTransitions() ) {
+            operations += t.getOperations().size();
+        }
+        
+        // epsilon has code zero in both dimensions
+        int maxSymbol = CharacterConstants.EMPTY_STRING;
+        int maxTop = Math.max( CharacterConstants.EMPTY_STRING, stackStartingSymbol );
+        for ( PDATransition t : pda.getTransitions() ) {
+            for ( PDAOperation o : t.getOperations() ) {
+                maxSymbol = Math.max( maxSymbol, o.getSymbol() );
+                maxTop = Math.max( maxTop, o.getTop() );
+                for ( char c : o.getSymbolsToPush() ) {
+                    maxTop = Math.max( maxTop, c );
+                }
+            }
+        }
+        
+        symbolCodes = new int[maxSymbol+1];
+        topCodes = new int[maxTop+1];
+        Arrays.fill( symbolCodes, -1 );
+        Arrays.fill( topCodes, -1 );
+        symbolCodes[CharacterConstants.EMPTY_STRING] = 0;
+        topCodes[CharacterConstants.EMPTY_STRING] = 0;
+        
+        int symbols = 1;
+        int tops = 1;
+        if ( topCodes[stackStartingSymbol] == -1 ) {
+            topCodes[stackStartingSymbol] = tops++;
+        }
+        for ( PDATransition t : pda.getTransitions() ) {
+            for ( PDAOperation o : t.getOperations() ) {
+                if ( symbolCodes[o.getSymbol()] == -1 ) {
+                    symbolCodes[o.getSymbol()] = symbols++;
+                }
+                if ( topCodes[o.getTop()] == -1 ) {
+                    topCodes[o.getTop()] = tops++;
+                }
+                for ( char c : o.getSymbolsToPush() ) {
+                    if ( topCodes[c] == -1 ) {
+                        topCodes[c] = tops++;
+                    }
+                }
+            }
+        }
+        
+        symbolCount = symbols;
+        topCount = tops;
+        
+        long cells = (long) states.size() * symbolCount * topCount;
+        if ( cells > MAX_CELLS ) {
+            throw new IllegalArgumentException( String.format( 
+                    "The PDA is too large (%d states, %d symbols and %d stack symbols) to build the operation table: "
+                    + "%d cells exceed the limit of %d.", states.size(), symbolCount - 1, topCount - 1, cells, MAX_CELLS ) );
+        }
+        
+        table = new int[(int) cells];
+        Arrays.fill( table, -1 );
+        targets = new int[operations];
+        pops = new boolean[operations];
+        pushes = new int[operations][];
+        
+        int entry = 0;
+        
+        for ( PDAState s : states ) {
+            
+            int state = indexes.get( s );
+            
+            for ( PDATransition t : delta.get( s ) ) {
+                for ( PDAOperation o : t.getOperations() ) {
+                    
+                    table[cell( state, symbolCodes[o.getSymbol()], 
+                            topCodes[o.getTop()] )] = entry;
+                    targets[entry] = indexes.get( t.getTargetState() );
+                    
+                    switch ( o.getType() ) {
+                        case POP:
+                            pops[entry] = true;
+                            pushes[entry] = new int[0];
+                            break;
+                        case PUSH:
+                            pushes[entry] = toCodes( o.getSymbolsToPush() );
+                            break;
+                        case REPLACE:
+                            pops[entry] = true;
+                            pushes[entry] = toCodes( o.getSymbolsToPush() );
+                            break;
+                        default:
+                            pushes[entry] = new int[0];
+                            break;
+                    }
+                    
+                    entry++;
+                    
+                }
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Decides if a string is accepted.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+        
+        int length = str.length();
+        int offset = 0;
+        int state = initialState;
+        
+        // the stack keeps the codes of the symbols
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = topCodes[stackStartingSymbol];
+        
+        // epsilon moves since the last consumed symbol that may be repeated
+        // forever, by state and top. their heights never decrease, so they
+        // are kept as a stack
+        boolean[] recorded = new boolean[finalStates.length * topCount];
+        int[] recordKeys = new int[16];
+        int[] recordHeights = new int[16];
+        int records = 0;
+        
+        while ( true ) {
+            
+            if ( offset == length ) {
+                if ( acceptanceType == PDAAcceptanceType.FINAL_STATE ? 
+                        finalStates[state] : size == 0 ) {
+                    return true;
+                }
+            }
+            
+            int top = size == 0 ? 0 : stack[size-1];
+            int entry = -1;
+            boolean consumes = false;
+            
+            if ( offset < length ) {
+                char c = str.charAt( offset );
+                int symbol = c < symbolCodes.length ? symbolCodes[c] : -1;
+                if ( symbol > 0 ) {
+                    entry = table[cell( state, symbol, top )];
+                    consumes = entry != -1;
+                }
+            }
+            
+            if ( entry == -1 ) {
+                entry = table[cell( state, 0, top )];
+            }
+            
+            // halts: no operation, or a pop of an empty stack
+            if ( entry == -1 || ( pops[entry] && size == 0 ) ) {
+                return false;
+            }
+            
+            if ( consumes ) {
+                
+                offset++;
+                while ( records > 0 ) {
+                    recorded[recordKeys[--records]] = false;
+                }
+                
+            } else {
+                
+                int k = state * topCount + top;
+                
+                if ( recorded[k] ) {
+                    return false;
+                }
+                recorded[k] = true;
+                
+                if ( records == recordKeys.length ) {
+                    recordKeys = Arrays.copyOf( recordKeys, records * 2 );
+                    recordHeights = Arrays.copyOf( recordHeights, records * 2 );
+                }
+                
+                recordKeys[records] = k;
+                recordHeights[records] = size;
+                records++;
+                
+            }
+            
+            if ( pops[entry] ) {
+                size--;
+            }
+            
+            int[] push = pushes[entry];
+            if ( size + push.length > stack.length ) {
+                stack = Arrays.copyOf( stack, Math.max( stack.length * 2, size + push.length ) );
+            }
+            for ( int c : push ) {
+                stack[size++] = c;
+            }
+            
+            // a recorded move may repeat only while the symbols below its
+            // stack top are not exposed, i.e., while the stack is at least
+            // as high as when it was recorded
+            while ( records > 0 && recordHeights[records-1] > size ) {
+                records--;
+                recorded[recordKeys[records]] = false;
+            }
+            
+            state = targets[entry];
+            
+        }
+        
+    }
+    
+    private int cell( int state, int symbol, int top ) {
+        return ( state * symbolCount + symbol ) * topCount + top;
+    }
+    
+    private int[] toCodes( List<Character> symbols ) {
+        int[] codes = new int[symbols.size()];
+        for ( int i = 0; i < codes.length; i++ ) {
+            codes[i] = topCodes[symbols.get( i )];
+        }
+        return codes;
+    }
+    
+}
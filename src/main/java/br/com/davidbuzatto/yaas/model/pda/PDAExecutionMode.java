@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+/**
+ * Execution engine used by a Pushdown Automaton to decide the membership of
+ * a string.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public enum PDAExecutionMode {
+    
+    /**
+     * Builds the id tree, used by the id viewers and the simulation.
+     */
+    ID_TREE,
+    
+    /**
+     * Memoized search over the configurations, without building the id
+     * tree.
+     */
+    CONFIGURATION_SEARCH,
+    
+    /**
+     * Memoized search over the configurations that doesn't keep the links
+     * between them, stopping at the first acceptance, or the single path of
+     * a DPDA. When the search is cut off by its limits without accepting,
+     * the membership is decided by the GRAMMAR mode, so the result is
+     * always conclusive. Only the result is available.
+     */
+    HEADLESS,
+    
+    /**
+     * Converts the PDA to a Context-Free Grammar and decides the membership
+     * with the Earley algorithm, in polynomial time and without depth limits.
+     */
+    GRAMMAR,
+    
+    /**
+     * Memoized search over the configurations that explores independent
+     * branches in parallel using a fork/join pool, stopping all of them at
+     * the first acceptance. Only the result is available.
+     */
+    PARALLEL
+    
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.model.cfg.algorithms.CFGEarleyRecognizer;
+import br.com.davidbuzatto.yaas.model.pda.algorithms.PDAToCFG;
+
+/**
+ * Executes a Pushdown Automaton with a given execution mode, possibly for
+ * many strings.
+ * 
+ * The deterministic executor and the grammar recognizer are created only
+ * when they are needed for the first time, and then reused by the next
+ * strings, so a batch of strings pays for them only once. The PDA must not
+ * be modified while the executor is used.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAExecutor {
+    
+    private final PDA pda;
+    private final PDAAcceptanceType acceptanceType;
+    private final PDAExecutionMode mode;
+    
+    private PDADeterministicExecutor deterministicExecutor;
+    private CFGEarleyRecognizer recognizer;
+    private Boolean deterministic;
+    
+    /**
+     * Creates an executor.
+     * 
+     * @param pda The Pushdown Automaton.
+     * @param acceptanceType The acceptance type.
+     * @param mode The execution mode.
+     */
+    public PDAExecutor( PDA pda, PDAAcceptanceType acceptanceType, PDAExecutionMode mode ) {
+        this.pda = pda;
+        this.acceptanceType = acceptanceType;
+        this.mode = mode;
+    }
+    
+    /**
+     * Executes the PDA.
+     * 
+     * The ID_TREE mode returns the id tree. The other modes return only the
+     * acceptance and the limits that cut the search off, if any. The
+     * HEADLESS mode is always conclusive: when the search over the
+     * configurations of a nondeterministic PDA is cut off without accepting,
+     * the string is decided by the grammar.
+     * 
+     * @param str The string to be tested.
+     * @return The result of the execution.
+     */
+    public PDASearchResult execute( String str ) {
+        
+        if ( !pda.canExecute() ) {
+            return new PDASearchResult();
+        }
+        
+        switch ( mode ) {
+            
+            case ID_TREE:
+                return pda.buildIDTree( str, acceptanceType, 
+                        PDASearchLimits.getDefaultLimits(), false );
+                
+            case CONFIGURATION_SEARCH: {
+                PDAConfigurationSearch search = new PDAConfigurationSearch( pda, acceptanceType );
+                boolean accepted = search.accepts( str );
+                return createResult( accepted, 
+                        search.isDepthLimitReached(), 
+                        search.isConfigurationLimitReached() );
+            }
+                
+            case HEADLESS: {
+                
+                if ( isDeterministic() ) {
+                    return createResult( getDeterministicExecutor().accepts( str ), false, false );
+                }
+                
+                PDAConfigurationSearch search = new PDAConfigurationSearch( pda, acceptanceType, 
+                        PDASearchLimits.getDefaultConfigurationSearchLimits(), false );
+                
+                boolean accepted = search.accepts( str );
+                
+                if ( accepted || search.isExhaustive() ) {
+                    return createResult( accepted, false, false );
+                }
+                
+                return createResult( getRecognizer().accepts( str ), false, false );
+                
+            }
+                
+            case GRAMMAR:
+                return createResult( getRecognizer().accepts( str ), false, false );
+                
+            case PARALLEL: {
+                PDAParallelSearch search = new PDAParallelSearch( pda, acceptanceType );
+                boolean accepted = search.accepts( str );
+                return createResult( accepted, 
+                        search.isDepthLimitReached(), 
+                        search.isConfigurationLimitReached() );
+            }
+            
+        }
+        
+        return new PDASearchResult();
+        
+    }
+    
+    /**
+     * Decides if a string is accepted.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+        return execute( str ).isAccepted();
+    }
+    
+    private PDASearchResult createResult( boolean accepted, 
+            boolean depthLimitReached, boolean configurationLimitReached ) {
+        
+        PDASearchResult result = new PDASearchResult();
+        result.setAccepted( accepted );
+        
+        // an acceptance is conclusive
+        if ( !accepted ) {
+            result.setDepthLimitReached( depthLimitReached );
+            result.setNodeLimitReached( configurationLimitReached );
+        }
+        
+        if ( mode == PDAExecutionMode.CONFIGURATION_SEARCH || 
+                mode == PDAExecutionMode.PARALLEL ) {
+            result.setLimits( PDASearchLimits.getDefaultConfigurationSearchLimits() );
+        }
+        
+        return result;
+        
+    }
+    
+    private boolean isDeterministic() {
+        if ( deterministic == null ) {
+            deterministic = pda.isDeterministic();
+        }
+        return deterministic;
+    }
+    
+    private PDADeterministicExecutor getDeterministicExecutor() {
+        if ( deterministicExecutor == null ) {
+            deterministicExecutor = new PDADeterministicExecutor( pda, acceptanceType );
+        }
+        return deterministicExecutor;
+    }
+    
+    private CFGEarleyRecognizer getRecognizer() {
+        if ( recognizer == null ) {
+            recognizer = new CFGEarleyRecognizer( 
+                    new PDAToCFG( pda, acceptanceType ).getGeneratedCFG() );
+        }
+        return recognizer;
+    }
+    
+}
@@ -25,12 +25,16 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.font.LineMetrics;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 
 /**
  * This class models Pushdown Automata Instantaneous Descriptions (IDs).
  * 
+ * The remaining string is represented by the input shared by all the ids of
+ * a tree and the offset of the next symbol to be read. The hash of the
+ * configuration (state, offset and stack) is computed at construction, so
+ * comparing the configurations of two ids is usually O(1).
+ * 
  * @author Prof. Dr. David Buzatto
  */
 public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
@@ -38,35 +42,52 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
     private static final long serialVersionUID = 1L;
     
     private PDAState state;
-    private String string;
-    private Deque<Character> stack;
+    private String input;
+    private int offset;
+    private PDAStack stack;
+    private int configurationHash;
     private PDAOperation operation;
     
     private PDAID parent;
     private List<PDAID> children;
+    private int level;
     
     private boolean acceptedByFinalState;
     private boolean acceptedByEmptyStack;
     private Color acceptedStrokeColor;
     private Color acceptedFillColor;
     
+    // the text and its metrics are computed only when the id is drawn or
+    // laid out by a viewer, since most of the ids are never displayed
     private String text;
     private int textWidth;
     private int textHeight;
+    private boolean metricsUpToDate;
     private Color textColor;
     
     private boolean activeInSimulation;
     private Color activeInSimulationStrokeColor;
     private Color activeInSimulationFillColor;
     
-    public PDAID( PDAState state, String string, Deque<Character> stack, PDAOperation operation, Color strokeColor ) {
+    public PDAID( PDAState state, String string, PDAStack stack, PDAOperation operation, Color strokeColor ) {
+        this( state, string, 0, stack, operation, strokeColor );
+    }
+    
+    public PDAID( PDAState state, String input, int offset, PDAStack stack, PDAOperation operation, Color strokeColor ) {
         
         this.state = state;
-        this.string = string;
+        this.input = input;
+        this.offset = offset;
         this.children = new ArrayList<>();
-        this.stack = Utils.cloneCharacterStack( stack );
+        this.stack = stack;
         this.operation = operation;
         
+        int h = 7;
+        h = 31 * h + System.identityHashCode( state );
+        h = 31 * h + offset;
+        h = 31 * h + stack.hashCode();
+        this.configurationHash = h;
+        
         this.font = DrawingConstants.DEFAULT_FONT;
         this.textColor = DrawingConstants.PDAID_DEFAULT_TEXT_COLOR;
         
@@ -75,21 +96,36 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
         
         setStrokeColor( strokeColor );
         setAcceptedStrokeColor( DrawingConstants.PDAID_DEFAULT_ACCEPTED_COLOR );
-        setText( toString() );
         
     }
     
     public void addChild( PDAID child ) {
         children.add( child );
         child.parent = this;
+        child.level = level + 1;
     }
 
     public void setText( String text ) {
         this.text = text;
-        LineMetrics lm = Utils.getLineMetrics( text, font );
-        FontMetrics fm = Utils.getFontMetrics( font );
-        textWidth = fm.stringWidth( text );
-        textHeight = (int) ( lm.getHeight() / 2 );
+        this.metricsUpToDate = false;
+    }
+    
+    public String getText() {
+        if ( text == null ) {
+            text = toString();
+        }
+        return text;
+    }
+    
+    private void updateMetrics() {
+        if ( !metricsUpToDate ) {
+            String t = getText();
+            LineMetrics lm = Utils.getLineMetrics( t, font );
+            FontMetrics fm = Utils.getFontMetrics( font );
+            textWidth = fm.stringWidth( t );
+            textHeight = (int) ( lm.getHeight() / 2 );
+            metricsUpToDate = true;
+        }
     }
 
     public PDAOperation getOperation() {
@@ -103,6 +139,8 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
     @Override
     public void draw( Graphics2D g2d ) {
         
+        updateMetrics();
+        
         g2d = (Graphics2D) g2d.create();
         
         g2d.setFont( font );
@@ -136,7 +174,7 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
         }
         
         g2d.setColor( textColor );
-        g2d.drawString( text, x1 - textWidth / 2, y1 + textHeight / 2 );
+        g2d.drawString( getText(), x1 - textWidth / 2, y1 + textHeight / 2 );
         
         g2d.dispose();
         
@@ -151,11 +189,32 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
         return state;
     }
 
+    /**
+     * @return The remaining string.
+     */
     public String getString() {
-        return string;
+        return input.substring( offset );
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * @return The position of the next symbol to be read in the input.
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    /**
+     * @return true if the whole input was consumed, false otherwise.
+     */
+    public boolean isInputConsumed() {
+        return offset == input.length();
     }
 
-    public Deque<Character> getStack() {
+    public PDAStack getStack() {
         return stack;
     }
 
@@ -167,6 +226,13 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
         return children;
     }
 
+    /**
+     * @return The depth of this id in the id tree (zero for the root).
+     */
+    public int getLevel() {
+        return level;
+    }
+
     public boolean isAcceptedByFinalState() {
         return acceptedByFinalState;
     }
@@ -195,13 +261,43 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
     }
 
     public int getTextWidth() {
+        updateMetrics();
         return textWidth;
     }
 
     public int getTextHeight() {
+        updateMetrics();
         return textHeight;
     }
     
+    public int getConfigurationHash() {
+        return configurationHash;
+    }
+    
+    /**
+     * Verifies if this id and the given one have the same configuration, i.e.,
+     * the same state, offset, remaining string and stack. The ids themselves are still
+     * compared by identity in equals, like any other geometric form.
+     * 
+     * @param o The id to be compared.
+     * @return true if the configurations are equal, false otherwise.
+     */
+    public boolean hasSameConfiguration( PDAID o ) {
+        
+        if ( configurationHash != o.configurationHash || 
+                state != o.state || offset != o.offset ) {
+            return false;
+        }
+        
+        if ( input != o.input && ( input.length() != o.input.length() || 
+                !input.regionMatches( offset, o.input, offset, input.length() - offset ) ) ) {
+            return false;
+        }
+        
+        return stack.equals( o.stack );
+        
+    }
+    
     @Override
     public int compareTo( PDAID o ) {
         return state.compareTo( o.state );
@@ -209,13 +305,9 @@ public class PDAID extends AbstractGeometricForm implements Comparable<PDAID> {
     
     @Override
     public String toString() {
-        String sStr = "";
-        for ( char c : stack ) {
-            sStr += c;
-        }
         return String.format( "(%s, %s, %s)", state, 
-                string.isEmpty() ? CharacterConstants.EMPTY_STRING.toString() : string, 
-                sStr.isEmpty() ? CharacterConstants.EMPTY_STRING.toString() : sStr );
+                isInputConsumed() ? CharacterConstants.EMPTY_STRING.toString() : input.substring( offset ), 
+                stack );
     }
     
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Memoized search over the configurations of a Pushdown Automaton that
+ * explores independent branches in parallel.
+ * 
+ * The search is performed by PDAParallelSearchTask instances in a fork/join
+ * pool. Each task explores its configurations depth-first, like
+ * PDAConfigurationSearch, and gives the oldest pending ones to idle workers,
+ * which steal them. The expanded configurations are shared by all the tasks,
+ * so each configuration is still expanded only once (or again when reached
+ * with a smaller depth), and all the tasks stop as soon as one of them finds
+ * an accepting configuration.
+ * 
+ * A search must be used by one invocation of accepts at a time. The
+ * configurations don't reference the ones that originated them, so only the
+ * result is available.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAParallelSearch {
+    
+    private final PDA pda;
+    private final PDAAcceptanceType acceptanceType;
+    private final int maxDepth;
+    private final int maxConfigurations;
+    private final ForkJoinPool pool;
+    
+    // state of the current search, shared by the tasks
+    private String input;
+    private Map<PDAState, List<PDATransition>> delta;
+    private Map<PDAConfiguration, Integer> expanded;
+    private AtomicInteger distinctConfigurations;
+    private AtomicInteger expandedConfigurations;
+    private volatile boolean accepted;
+    private volatile boolean depthLimitReached;
+    private volatile boolean configurationLimitReached;
+    private volatile boolean stopped;
+    
+    public PDAParallelSearch( PDA pda, PDAAcceptanceType acceptanceType ) {
+        this( pda, acceptanceType, 
+                PDASearchLimits.getDefaultConfigurationSearchLimits(), 
+                ForkJoinPool.commonPool() );
+    }
+    
+    /**
+     * Creates a search.
+     * 
+     * @param pda The Pushdown Automaton.
+     * @param acceptanceType The acceptance type.
+     * @param limits Maximum length of a path from the initial configuration
+     * and maximum quantity of distinct configurations that will be expanded.
+     * @param pool The pool that will run the tasks.
+     */
+    public PDAParallelSearch( PDA pda, PDAAcceptanceType acceptanceType, 
+            PDASearchLimits limits, ForkJoinPool pool ) {
+        this.pda = pda;
+        this.acceptanceType = acceptanceType;
+        this.maxDepth = limits.getMaxDepth();
+        this.maxConfigurations = limits.getMaxNodes();
+        this.pool = pool;
+    }
+    
+    /**
+     * Decides if a string is accepted.
+     * 
+     * @param str The string to be tested.
+     * @return true if the string is accepted, false otherwise.
+     */
+    public boolean accepts( String str ) {
+        
+        input = str;
+        expanded = new ConcurrentHashMap<>();
+        distinctConfigurations = new AtomicInteger();
+        expandedConfigurations = new AtomicInteger();
+        accepted = false;
+        depthLimitReached = false;
+        configurationLimitReached = false;
+        stopped = false;
+        
+        if ( !pda.canExecute() ) {
+            return false;
+        }
+        
+        delta = pda.getDelta();
+        
+        Deque<PDAConfiguration> work = new ArrayDeque<>();
+        work.push( new PDAConfiguration( pda.getInitialState(), 0, 
+                PDAStack.empty().push( pda.getStackStartingSymbol() ), 0 ) );
+        
+        pool.invoke( new PDAParallelSearchTask( this, work ) );
+        
+        return accepted;
+        
+    }
+    
+    /**
+     * Visits a configuration taken from the work stack of a task.
+     * 
+     * @param c The configuration.
+     * @return true if the configuration must be expanded, false otherwise.
+     */
+    boolean visit( PDAConfiguration c ) {
+        
+        Integer depth = expanded.get( c );
+        if ( depth != null && depth <= c.getDepth() ) {
+            return false;
+        }
+        
+        if ( c.getDepth() >= maxDepth ) {
+            depthLimitReached = true;
+            return false;
+        }
+        
+        if ( !claim( c ) ) {
+            return false;
+        }
+        
+        expandedConfigurations.incrementAndGet();
+        
+        if ( PDAConfigurationSearch.isAccepting( c, input.length(), acceptanceType ) ) {
+            accepted = true;
+            stopped = true;
+            return false;
+        }
+        
+        return true;
+        
+    }
+    
+    /**
+     * Registers the depth in which a configuration will be expanded. Only one
+     * task succeeds when several of them reach the same configuration with
+     * the same depth.
+     * 
+     * @return true if the configuration was not expanded yet, or was
+     * expanded only with a greater depth, false otherwise.
+     */
+    private boolean claim( PDAConfiguration c ) {
+        
+        while ( true ) {
+            
+            Integer depth = expanded.putIfAbsent( c, c.getDepth() );
+            
+            if ( depth == null ) {
+                if ( distinctConfigurations.incrementAndGet() > maxConfigurations ) {
+                    configurationLimitReached = true;
+                    stopped = true;
+                    return false;
+                }
+                return true;
+            }
+            
+            if ( depth <= c.getDepth() ) {
+                return false;
+            }
+            
+            if ( expanded.replace( c, depth, c.getDepth() ) ) {
+                return true;
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Creates the configurations reached from a configuration by one
+     * operation.
+     */
+    void expand( PDAConfiguration c, List<PDAConfiguration> children ) {
+        PDAConfigurationSearch.expand( c, input, delta, false, children );
+    }
+    
+    /**
+     * @return true if an accepting configuration was found or the
+     * configuration limit was reached, meaning that all the tasks must stop.
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+    
+    /**
+     * @return true if the last search explored all the reachable
+     * configurations, false if it was cut by the depth or the configuration
+     * limits.
+     */
+    public boolean isExhaustive() {
+        return !depthLimitReached && !configurationLimitReached;
+    }
+    
+    public boolean isDepthLimitReached() {
+        return depthLimitReached;
+    }
+    
+    public boolean isConfigurationLimitReached() {
+        return configurationLimitReached;
+    }
+    
+    public int getExpandedConfigurations() {
+        return expandedConfigurations.get();
+    }
+    
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.util.ApplicationConstants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A task of the parallel search over the configurations of a Pushdown
+ * Automaton. It explores its work stack depth-first and, while the pool has
+ * few queued tasks, forks a new task with the oldest pending configuration,
+ * that is usually the root of the biggest unexplored subtree.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAParallelSearchTask extends RecursiveAction {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final PDAParallelSearch search;
+    private final Deque<PDAConfiguration> work;
+    
+    PDAParallelSearchTask( PDAParallelSearch search, Deque<PDAConfiguration> work ) {
+        this.search = search;
+        this.work = work;
+    }
+
+    @Override
+    protected void compute() {
+        
+        List<PDAParallelSearchTask> forked = new ArrayList<>();
+        List<PDAConfiguration> children = new ArrayList<>();
+        
+        while ( !work.isEmpty() && !search.isStopped() ) {
+            
+            if ( work.size() > 1 && getSurplusQueuedTaskCount() < 
+                    ApplicationConstants.PUSHDOWN_AUTOMATON_PARALLEL_SURPLUS ) {
+                Deque<PDAConfiguration> stolen = new ArrayDeque<>();
+                stolen.push( work.removeLast() );
+                PDAParallelSearchTask task = new PDAParallelSearchTask( search, stolen );
+                task.fork();
+                forked.add( task );
+            }
+            
+            PDAConfiguration c = work.pop();
+            
+            if ( search.visit( c ) ) {
+                
+                children.clear();
+                search.expand( c, children );
+                
+                // the first child must be the first to be expanded
+                for ( int i = children.size() - 1; i >= 0; i-- ) {
+                    work.push( children.get( i ) );
+                }
+                
+            }
+            
+        }
+        
+        for ( PDAParallelSearchTask task : forked ) {
+            task.join();
+        }
+        
+    }
+    
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.util.ApplicationConstants;
+
+/**
+ * Budgets of a search over the instantaneous descriptions of a Pushdown
+ * Automaton.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDASearchLimits {
+    
+    private final int maxDepth;
+    private final int maxNodes;
+    
+    /**
+     * Creates the limits of a search.
+     * 
+     * @param maxDepth Maximum length of a path from the initial id. Paths
+     * that reach it are not expanded anymore.
+     * @param maxNodes Maximum quantity of ids (or configurations) that will be
+     * expanded. The search stops when it is reached.
+     */
+    public PDASearchLimits( int maxDepth, int maxNodes ) {
+        
+        if ( maxDepth < 1 || maxNodes < 1 ) {
+            throw new IllegalArgumentException( "The limits must be positive." );
+        }
+        
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        
+    }
+    
+    /**
+     * @return The limits used when none are informed.
+     */
+    public static PDASearchLimits getDefaultLimits() {
+        return new PDASearchLimits( 
+                ApplicationConstants.PUSHDOWN_AUTOMATON_MAX_LEVEL, 
+                ApplicationConstants.PUSHDOWN_AUTOMATON_MAX_NODES );
+    }
+    
+    /**
+     * @return The limits used by the configuration search when none are
+     * informed.
+     */
+    public static PDASearchLimits getDefaultConfigurationSearchLimits() {
+        return new PDASearchLimits( 
+                ApplicationConstants.PUSHDOWN_AUTOMATON_MAX_LEVEL, 
+                ApplicationConstants.PUSHDOWN_AUTOMATON_MAX_CONFIGURATIONS );
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    @Override
+    public String toString() {
+        return "PDASearchLimits{" + "maxDepth=" + maxDepth + ", maxNodes=" + maxNodes + '}';
+    }
+    
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a search over the instantaneous descriptions of a Pushdown
+ * Automaton.
+ * 
+ * An acceptance is always conclusive. A rejection is conclusive only if the
+ * search was exhaustive, i.e., it was not cut off by the depth or by the node
+ * limit. The searches that don't build the id tree return it too, without
+ * the ids.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDASearchResult {
+    
+    private boolean accepted;
+    private boolean depthLimitReached;
+    private boolean nodeLimitReached;
+    private PDASearchLimits limits;
+    
+    private PDAID rootId;
+    private List<PDAID> ids;
+    private PDAID firstAcceptedId;
+    
+    PDASearchResult() {
+        ids = new ArrayList<>();
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    void setAccepted( boolean accepted ) {
+        this.accepted = accepted;
+    }
+    
+    /**
+     * @return true if every path was followed until it could not be expanded
+     * anymore, false if the search was cut off.
+     */
+    public boolean isExhaustive() {
+        return !depthLimitReached && !nodeLimitReached;
+    }
+
+    public boolean isDepthLimitReached() {
+        return depthLimitReached;
+    }
+
+    void setDepthLimitReached( boolean depthLimitReached ) {
+        this.depthLimitReached = depthLimitReached;
+    }
+
+    public boolean isNodeLimitReached() {
+        return nodeLimitReached;
+    }
+
+    void setNodeLimitReached( boolean nodeLimitReached ) {
+        this.nodeLimitReached = nodeLimitReached;
+    }
+
+    /**
+     * @return The limits used by the search, or null if it has no limits.
+     */
+    public PDASearchLimits getLimits() {
+        return limits;
+    }
+
+    void setLimits( PDASearchLimits limits ) {
+        this.limits = limits;
+    }
+
+    public PDAID getRootId() {
+        return rootId;
+    }
+
+    void setRootId( PDAID rootId ) {
+        this.rootId = rootId;
+    }
+
+    /**
+     * @return The visited ids, in the order they were visited.
+     */
+    public List<PDAID> getIds() {
+        return ids;
+    }
+
+    public PDAID getFirstAcceptedId() {
+        return firstAcceptedId;
+    }
+
+    void setFirstAcceptedId( PDAID firstAcceptedId ) {
+        this.firstAcceptedId = firstAcceptedId;
+    }
+    
+    public int getVisitedIds() {
+        return ids.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PDASearchResult{" + "accepted=" + accepted + 
+                ", depthLimitReached=" + depthLimitReached + 
+                ", nodeLimitReached=" + nodeLimitReached + 
+                ", visitedIds=" + ids.size() + '}';
+    }
+    
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable stack of a Pushdown Automaton configuration.
+ * 
+ * Each stack is a node that holds the top symbol and references the stack
+ * below it, so pushing and popping are O(1) and the resulting stacks share
+ * their tails with the original one instead of copying it. The size and the
+ * hash code are computed when the node is created.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public final class PDAStack {
+    
+    private static final PDAStack EMPTY = new PDAStack();
+    
+    private final char top;
+    private final PDAStack below;
+    private final int size;
+    private final int hash;
+    
+    private PDAStack() {
+        this.top = 0;
+        this.below = null;
+        this.size = 0;
+        this.hash = 1;
+    }
+    
+    private PDAStack( char top, PDAStack below ) {
+        this.top = top;
+        this.below = below;
+        this.size = below.size + 1;
+        this.hash = 31 * below.hash + top;
+    }
+    
+    /**
+     * @return The empty stack.
+     */
+    public static PDAStack empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * @param symbol The symbol to be pushed.
+     * @return A new stack with the symbol on the top of this one.
+     */
+    public PDAStack push( char symbol ) {
+        return new PDAStack( symbol, this );
+    }
+    
+    /**
+     * Pushes the symbols in the order they appear in the list, so the last
+     * one will be the top.
+     * 
+     * @param symbols The symbols to be pushed.
+     * @return A new stack with the symbols on the top of this one.
+     */
+    public PDAStack push( List<Character> symbols ) {
+        PDAStack s = this;
+        for ( char symbol : symbols ) {
+            s = new PDAStack( symbol, s );
+        }
+        return s;
+    }
+    
+    /**
+     * @return The stack below the top.
+     * @throws NoSuchElementException If the stack is empty.
+     */
+    public PDAStack pop() {
+        if ( size == 0 ) {
+            throw new NoSuchElementException();
+        }
+        return below;
+    }
+    
+    /**
+     * @return The top of the stack.
+     * @throws NoSuchElementException If the stack is empty.
+     */
+    public char peek() {
+        if ( size == 0 ) {
+            throw new NoSuchElementException();
+        }
+        return top;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        
+        if ( this == obj ) {
+            return true;
+        }
+        if ( obj == null ) {
+            return false;
+        }
+        if ( getClass() != obj.getClass() ) {
+            return false;
+        }
+        
+        PDAStack s1 = this;
+        PDAStack s2 = (PDAStack) obj;
+        
+        if ( s1.size != s2.size || s1.hash != s2.hash ) {
+            return false;
+        }
+        
+        // stops at the first shared tail
+        while ( s1 != s2 ) {
+            if ( s1.top != s2.top ) {
+                return false;
+            }
+            s1 = s1.below;
+            s2 = s2.below;
+        }
+        
+        return true;
+        
+    }
+    
+    /**
+     * @return The symbols from the top to the bottom, or the empty string
+     * symbol if the stack is empty.
+     */
+    @Override
+    public String toString() {
+        
+        if ( size == 0 ) {
+            return CharacterConstants.EMPTY_STRING.toString();
+        }
+        
+        StringBuilder sb = new StringBuilder( size );
+        for ( PDAStack s = this; s.size != 0; s = s.below ) {
+            sb.append( s.top );
+        }
+        
+        return sb.toString();
+        
+    }
+    
+}
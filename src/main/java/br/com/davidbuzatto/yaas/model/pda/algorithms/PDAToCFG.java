@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.pda.algorithms;
+
+import br.com.davidbuzatto.yaas.model.cfg.CFG;
+import br.com.davidbuzatto.yaas.model.cfg.CFGProduction;
+import br.com.davidbuzatto.yaas.model.pda.PDA;
+import br.com.davidbuzatto.yaas.model.pda.PDAAcceptanceType;
+import br.com.davidbuzatto.yaas.model.pda.PDAOperation;
+import br.com.davidbuzatto.yaas.model.pda.PDAState;
+import br.com.davidbuzatto.yaas.model.pda.PDATransition;
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates a Context-Free Grammar that generates the language of a Pushdown
+ * Automaton.
+ * 
+ * The PDA is first normalized into moves that always pop exactly one symbol
+ * and push at most two:
+ *   - a new bottom marker is placed below the stack starting symbol, so an
+ *     operation that expects the empty stack (top = epsilon) pops and pushes
+ *     back the marker;
+ *   - acceptance by final state is turned into acceptance by empty stack,
+ *     draining the stack from the final states, and acceptance by empty stack
+ *     pops the marker from any state;
+ *   - operations that push more than one symbol over the top are split using
+ *     intermediate states.
+ * Then the triple construction (Hopcroft) creates a nonterminal [pXq] for each
+ * pair of states p, q and stack symbol X, generating the strings that take
+ * the automaton from p to q popping X. Nonterminals that don't generate any
+ * string or that can't be reached from the start symbol are removed.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class PDAToCFG {
+    
+    // layout of a move
+    private static final int FROM = 0;
+    private static final int INPUT = 1;
+    private static final int POP = 2;
+    private static final int TO = 3;
+    private static final int PUSH = 4;
+    
+    private static final int EPSILON = -1;
+    private static final int BOTTOM = 0;
+    
+    private final CFG generatedCFG;
+    
+    public PDAToCFG( PDA pda, PDAAcceptanceType acceptanceType ) throws IllegalArgumentException {
+        generatedCFG = processIt( pda, acceptanceType );
+    }
+
+    public CFG getGeneratedCFG() {
+        return generatedCFG;
+    }
+    
+    private static CFG processIt( PDA pda, PDAAcceptanceType acceptanceType ) 
+            throws IllegalArgumentException {
+        
+        PDACommon.validateInitialState( pda );
+        
+        List<String> stateNames = new ArrayList<>();
+        Map<PDAState, Integer> stateIndexes = new HashMap<>();
+        
+        for ( PDAState s : pda.getStates() ) {
+            stateIndexes.put( s, stateNames.size() );
+            stateNames.add( s.toString() );
+        }
+        
+        int start = stateNames.size();
+        stateNames.add( "start" );
+        int drain = stateNames.size();
+        stateNames.add( "drain" );
+        int end = stateNames.size();
+        stateNames.add( "end" );
+        
+        // stack symbols, the bottom marker first
+        List<String> symbolNames = new ArrayList<>();
+        Map<Character, Integer> symbolIndexes = new LinkedHashMap<>();
+        symbolNames.add( CharacterConstants.UP_TACK.toString() );
+        
+        List<int[]> moves = new ArrayList<>();
+        
+        moves.add( move( start, EPSILON, BOTTOM, stateIndexes.get( pda.getInitialState() ), 
+                symbol( pda.getStackStartingSymbol(), symbolIndexes, symbolNames ), BOTTOM ) );
+        
+        for ( PDATransition t : pda.getTransitions() ) {
+            
+            int from = stateIndexes.get( t.getOriginState() );
+            int to = stateIndexes.get( t.getTargetState() );
+            
+            for ( PDAOperation o : t.getOperations() ) {
+                
+                int input = o.getSymbol() == CharacterConstants.EMPTY_STRING ? 
+                        EPSILON : o.getSymbol();
+                boolean emptyStack = o.getTop() == CharacterConstants.EMPTY_STRING;
+                int top = emptyStack ? BOTTOM : symbol( o.getTop(), symbolIndexes, symbolNames );
+                
+                // the pushed symbols, from the new top to the old top
+                List<Character> toPush = o.getSymbolsToPush();
+                int[] pushed = new int[toPush.size()];
+                for ( int i = 0; i < pushed.length; i++ ) {
+                    pushed[i] = symbol( toPush.get( pushed.length - 1 - i ), symbolIndexes, symbolNames );
+                }
+                
+                switch ( o.getType() ) {
+                    case DO_NOTHING:
+                        moves.add( move( from, input, top, to, top ) );
+                        break;
+                    case POP:
+                        // popping the empty stack is not possible
+                        if ( !emptyStack ) {
+                            moves.add( move( from, input, top, to ) );
+                        }
+                        break;
+                    case PUSH:
+                        moves.add( move( from, input, top, to, append( pushed, top ) ) );
+                        break;
+                    case REPLACE:
+                        if ( !emptyStack ) {
+                            moves.add( move( from, input, top, to, pushed ) );
+                        }
+                        break;
+                }
+                
+            }
+            
+        }
+        
+        int symbolCount = symbolNames.size();
+        
+        if ( acceptanceType == PDAAcceptanceType.FINAL_STATE ) {
+            for ( PDAState s : pda.getStates() ) {
+                if ( s.isFinal() ) {
+                    for ( int x = 0; x < symbolCount; x++ ) {
+                        moves.add( move( stateIndexes.get( s ), EPSILON, x, drain ) );
+                    }
+                }
+            }
+            for ( int x = 0; x < symbolCount; x++ ) {
+                moves.add( move( drain, EPSILON, x, drain ) );
+            }
+        } else {
+            for ( PDAState s : pda.getStates() ) {
+                moves.add( move( stateIndexes.get( s ), EPSILON, BOTTOM, end ) );
+            }
+        }
+        
+        // splits the moves that push more than two symbols
+        List<int[]> normalized = new ArrayList<>();
+        
+        for ( int[] m : moves ) {
+            
+            int k = m.length - PUSH;
+            
+            if ( k <= 2 ) {
+                normalized.add( m );
+                continue;
+            }
+            
+            // pushes Y1...Yk (Y1 on top) as Y(k-1)Yk, then replaces Y(k-1)
+            // by Y(k-2)Y(k-1) and so on
+            int current = stateNames.size();
+            stateNames.add( "t" + current );
+            normalized.add( move( m[FROM], m[INPUT], m[POP], current, 
+                    m[PUSH + k - 2], m[PUSH + k - 1] ) );
+            
+            for ( int i = k - 2; i >= 1; i-- ) {
+                int next;
+                if ( i == 1 ) {
+                    next = m[TO];
+                } else {
+                    next = stateNames.size();
+                    stateNames.add( "t" + next );
+                }
+                normalized.add( move( current, EPSILON, m[PUSH + i], next, 
+                        m[PUSH + i - 1], m[PUSH + i] ) );
+                current = next;
+            }
+            
+        }
+        
+        return createGrammar( normalized, stateNames, symbolNames, start );
+        
+    }
+    
+    /**
+     * Applies the triple construction, keeping only the useful nonterminals.
+     */
+    private static CFG createGrammar( List<int[]> moves, List<String> stateNames, 
+            List<String> symbolNames, int start ) {
+        
+        int stateCount = stateNames.size();
+        int symbolCount = symbolNames.size();
+        
+        // triple [p X q] -> p * symbolCount * stateCount + X * stateCount + q,
+        // and the start symbol after all the triples
+        int startSymbol = stateCount * symbolCount * stateCount;
+        List<CFGProduction> productions = new ArrayList<>();
+        
+        for ( int q = 0; q < stateCount; q++ ) {
+            productions.add( new CFGProduction( startSymbol, 
+                    triple( start, BOTTOM, q, stateCount, symbolCount ) ) );
+        }
+        
+        for ( int[] m : moves ) {
+            
+            int k = m.length - PUSH;
+            int from = m[FROM];
+            int x = m[POP];
+            int to = m[TO];
+            int[] prefix = m[INPUT] == EPSILON ? 
+                    new int[0] : new int[]{ CFGProduction.terminal( (char) m[INPUT] ) };
+            
+            if ( k == 0 ) {
+                productions.add( new CFGProduction( 
+                        triple( from, x, to, stateCount, symbolCount ), prefix ) );
+            } else if ( k == 1 ) {
+                for ( int p = 0; p < stateCount; p++ ) {
+                    productions.add( new CFGProduction( 
+                            triple( from, x, p, stateCount, symbolCount ), 
+                            append( prefix, triple( to, m[PUSH], p, stateCount, symbolCount ) ) ) );
+                }
+            } else {
+                for ( int p1 = 0; p1 < stateCount; p1++ ) {
+                    for ( int p = 0; p < stateCount; p++ ) {
+                        productions.add( new CFGProduction( 
+                                triple( from, x, p, stateCount, symbolCount ), 
+                                append( prefix, 
+                                        triple( to, m[PUSH], p1, stateCount, symbolCount ), 
+                                        triple( p1, m[PUSH + 1], p, stateCount, symbolCount ) ) ) );
+                    }
+                }
+            }
+            
+        }
+        
+        Set<Integer> useful = findUsefulNonterminals( productions, startSymbol );
+        
+        CFG cfg = new CFG();
+        Map<Integer, Integer> renamed = new HashMap<>();
+        
+        renamed.put( startSymbol, cfg.addNonterminal( "S" ) );
+        cfg.setStartSymbol( renamed.get( startSymbol ) );
+        
+        for ( CFGProduction p : productions ) {
+            
+            if ( !useful.contains( p.getHead() ) || !isUseful( p.getBody(), useful ) ) {
+                continue;
+            }
+            
+            int[] body = p.getBody().clone();
+            for ( int i = 0; i < body.length; i++ ) {
+                if ( !CFGProduction.isTerminal( body[i] ) ) {
+                    body[i] = rename( body[i], renamed, cfg, stateNames, symbolNames );
+                }
+            }
+            
+            cfg.addProduction( new CFGProduction( 
+                    rename( p.getHead(), renamed, cfg, stateNames, symbolNames ), body ) );
+            
+        }
+        
+        return cfg;
+        
+    }
+    
+    /**
+     * Finds the nonterminals that generate at least one string and that can
+     * be reached from the start symbol using only such nonterminals.
+     */
+    private static Set<Integer> findUsefulNonterminals( List<CFGProduction> productions, 
+            int startSymbol ) {
+        
+        // generating nonterminals: a production is triggered when all the
+        // nonterminals of its body are known to be generating
+        Map<Integer, List<Integer>> occurrences = new HashMap<>();
+        int[] pending = new int[productions.size()];
+        List<Integer> queue = new ArrayList<>();
+        Set<Integer> generating = new HashSet<>();
+        
+        for ( int i = 0; i < productions.size(); i++ ) {
+            for ( int s : productions.get( i ).getBody() ) {
+                if ( !CFGProduction.isTerminal( s ) ) {
+                    occurrences.computeIfAbsent( s, v -> new ArrayList<>() ).add( i );
+                    pending[i]++;
+                }
+            }
+            if ( pending[i] == 0 && generating.add( productions.get( i ).getHead() ) ) {
+                queue.add( productions.get( i ).getHead() );
+            }
+        }
+        
+        for ( int k = 0; k < queue.size(); k++ ) {
+            List<Integer> occ = occurrences.get( queue.get( k ) );
+            if ( occ != null ) {
+                for ( int i : occ ) {
+                    if ( --pending[i] == 0 && generating.add( productions.get( i ).getHead() ) ) {
+                        queue.add( productions.get( i ).getHead() );
+                    }
+                }
+            }
+        }
+        
+        // reachable nonterminals
+        Map<Integer, List<CFGProduction>> byHead = new HashMap<>();
+        for ( CFGProduction p : productions ) {
+            if ( generating.contains( p.getHead() ) && isUseful( p.getBody(), generating ) ) {
+                byHead.computeIfAbsent( p.getHead(), v -> new ArrayList<>() ).add( p );
+            }
+        }
+        
+        Set<Integer> reachable = new HashSet<>();
+        queue.clear();
+        
+        if ( generating.contains( startSymbol ) ) {
+            reachable.add( startSymbol );
+            queue.add( startSymbol );
+        }
+        
+        for ( int k = 0; k < queue.size(); k++ ) {
+            List<CFGProduction> ps = byHead.get( queue.get( k ) );
+            if ( ps != null ) {
+                for ( CFGProduction p : ps ) {
+                    for ( int s : p.getBody() ) {
+                        if ( !CFGProduction.isTerminal( s ) && reachable.add( s ) ) {
+                            queue.add( s );
+                        }
+                    }
+                }
+            }
+        }
+        
+        return reachable;
+        
+    }
+    
+    private static boolean isUseful( int[] body, Set<Integer> useful ) {
+        for ( int s : body ) {
+            if ( !CFGProduction.isTerminal( s ) && !useful.contains( s ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int rename( int triple, Map<Integer, Integer> renamed, CFG cfg, 
+            List<String> stateNames, List<String> symbolNames ) {
+        
+        Integer n = renamed.get( triple );
+        
+        if ( n == null ) {
+            int stateCount = stateNames.size();
+            int symbolCount = symbolNames.size();
+            int p = triple / ( symbolCount * stateCount );
+            int x = ( triple / stateCount ) % symbolCount;
+            int q = triple % stateCount;
+            n = cfg.addNonterminal( String.format( "[%s%s%s]", 
+                    stateNames.get( p ), symbolNames.get( x ), stateNames.get( q ) ) );
+            renamed.put( triple, n );
+        }
+        
+        return n;
+        
+    }
+    
+    private static int triple( int p, int x, int q, int stateCount, int symbolCount ) {
+        return ( p * symbolCount + x ) * stateCount + q;
+    }
+    
+    private static int symbol( char s, Map<Character, Integer> symbolIndexes, 
+            List<String> symbolNames ) {
+        
+        Integer i = symbolIndexes.get( s );
+        
+        if ( i == null ) {
+            i = symbolNames.size();
+            symbolIndexes.put( s, i );
+            symbolNames.add( String.valueOf( s ) );
+        }
+        
+        return i;
+        
+    }
+    
+    private static int[] move( int from, int input, int pop, int to, int... push ) {
+        
+        int[] m = new int[PUSH + push.length];
+        m[FROM] = from;
+        m[INPUT] = input;
+        m[POP] = pop;
+        m[TO] = to;
+        System.arraycopy( push, 0, m, PUSH, push.length );
+        
+        return m;
+        
+    }
+    
+    private static int[] append( int[] a, int... b ) {
+        int[] r = new int[a.length + b.length];
+        System.arraycopy( a, 0, r, 0, a.length );
+        System.arraycopy( b, 0, r, a.length, b.length );
+        return r;
+    }
+    
+}
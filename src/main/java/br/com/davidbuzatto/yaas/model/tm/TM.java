@@ -22,24 +22,25 @@ import br.com.davidbuzatto.yaas.model.AbstractGeometricForm;
 import br.com.davidbuzatto.yaas.util.ApplicationConstants;
 import br.com.davidbuzatto.yaas.util.CharacterConstants;
 import br.com.davidbuzatto.yaas.util.Utils;
-import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
  * Turing Machine representation and algorithms.
  * 
- * Note: Only Deterministic Turing Machines can be simulated, since NTMs will
- * be problematic to control when they accept by halt.
+ * Note: Only Deterministic Turing Machines can be simulated step by step.
+ * Nondeterministic Turing Machines are executed by a breadth-first search
+ * over their configurations (see TMNondeterministicSearch).
  * 
  * @author Prof. Dr. David Buzatto
  */
@@ -47,6 +48,9 @@ public class TM extends AbstractGeometricForm implements Cloneable {
     
     private static final long serialVersionUID = 1L;
     
+    // quantity of steps between two readings of the clock
+    private transient static final int CLOCK_CHECK_STEPS = 4096;
+    
     private transient static final boolean DEBUG = Boolean.parseBoolean( 
             Utils.getMavenModel().getProperties().getProperty( "debugAlgorithms" ) );
     
@@ -55,19 +59,24 @@ public class TM extends AbstractGeometricForm implements Cloneable {
     private TMState initialState;
     private TMType type;
     
-    private transient TMID rootId;
-    private transient List<TMID> ids;
-    private transient String tapeAfterAcceptsExecution;
-    private transient boolean ableToHalt;
-    
     // cache control
     private transient boolean alphabetUpToDate;
     private transient boolean tapeAlphabetUpToDate;
     private transient boolean deltaUpToDate;
+    private transient boolean actionTableUpToDate;
     
     private transient Set<Character> alphabet;
     private transient Set<Character> tapeAlphabet;
     private transient Map<TMState, List<TMTransition>> delta;
+    private transient TMActionTable actionTable;
+    
+    // incremental index, maintained together with the delta
+    private transient Map<TMState, List<TMTransition>> incoming;
+    private transient Map<TMTransition, List<TMOperation>> indexedOperations;
+    private transient Map<TMState, Map<Character, Integer>> readCounts;
+    private transient Map<Character, Integer> alphabetCounts;
+    private transient Map<Character, Integer> tapeAlphabetCounts;
+    private transient int nondeterministicKeys;
     
     private transient boolean transitionControlPointsVisible;
     
@@ -77,115 +86,290 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         this.type = TMType.EMPTY;
     }
     
+    /**
+     * Creates a builder to construct a Turing Machine with many states and
+     * transitions at once.
+     * 
+     * @return A new builder.
+     */
+    public static TMBuilder builder() {
+        return new TMBuilder();
+    }
+    
     public boolean accepts( String str, TMAcceptanceType acceptanceType ) {
-        return accepts( str, acceptanceType, null );
+        return accepts( str, acceptanceType, (List<TMSimulationStep>) null );
+    }
+    
+    public boolean accepts( String str, TMAcceptanceType acceptanceType, TMExecutionMode mode ) {
+        return execute( str, acceptanceType, mode ).isAccepted();
     }
     
     public boolean accepts( String str, TMAcceptanceType acceptanceType, List<TMSimulationStep> simulationSteps ) {
+        return execute( str, acceptanceType, simulationSteps ).isAccepted();
+    }
+    
+    /**
+     * Executes the machine using a given execution mode.
+     * 
+     * Both modes run a deterministic machine over a single mutable tape, so
+     * each step takes constant time. The ID_TREE mode also records the change
+     * made by each step, so the ids can be obtained from the result, and they
+     * are created only then. The HEADLESS mode doesn't record them, so it
+     * should be used when only the result and the final tape are needed, and
+     * it has a much bigger default budget, so long computations can be
+     * performed.
+     * 
+     * A nondeterministic machine is executed by a breadth-first search that
+     * explores all the branches, where each explored configuration counts as
+     * a step. The ID_TREE mode keeps the explored configurations, so the
+     * branching ids can be built.
+     * 
+     * The state of the execution is kept only in the returned result, so the
+     * same machine can be executed by several threads at the same time, as
+     * long as it is not modified meanwhile.
+     * 
+     * @param str The string to be tested.
+     * @param acceptanceType The acceptance type.
+     * @param mode The execution mode.
+     * @return The result of the execution.
+     */
+    public TMExecutionResult execute( String str, TMAcceptanceType acceptanceType, TMExecutionMode mode ) {
+        return execute( str, acceptanceType, mode, 
+                mode == TMExecutionMode.ID_TREE ? 
+                        TMExecutionLimits.getDefaultLimits() : 
+                        TMExecutionLimits.getDefaultHeadlessLimits(), 
+                null );
+    }
+    
+    /**
+     * Executes the machine using a given execution mode, budget and progress
+     * listener.
+     * 
+     * @param str The string to be tested.
+     * @param acceptanceType The acceptance type.
+     * @param mode The execution mode.
+     * @param limits The step and time budgets of this execution.
+     * @param listener The listener that will receive the progress, or null.
+     * @return The result of the execution.
+     */
+    public TMExecutionResult execute( String str, TMAcceptanceType acceptanceType, 
+            TMExecutionMode mode, TMExecutionLimits limits, TMProgressListener listener ) {
+        return run( str, acceptanceType, mode == TMExecutionMode.ID_TREE, 
+                limits, listener );
+    }
+    
+    public TMExecutionResult execute( String str, TMAcceptanceType acceptanceType, List<TMSimulationStep> simulationSteps ) {
+        
+        TMExecutionResult result = run( str, acceptanceType, true, 
+                TMExecutionLimits.getDefaultLimits(), null );
         
-        int count = 0;
+        if ( simulationSteps != null && result.isAbleToHalt() ) {
+            for ( TMID id : result.getPath() ) {
+                simulationSteps.add( new TMSimulationStep( id ) );
+            }
+        }
+        
+        return result;
+        
+    }
+    
+    /**
+     * Runs the machine over a tape that is modified in place.
+     * 
+     * Each step applies exactly one operation, found in the compiled action
+     * table by the current state and the symbol under the head, so it takes
+     * constant time no matter how many operations the state has.
+     * 
+     * Since the machine is deterministic, it never halts if a configuration
+     * (state, head position and tape contents) repeats, so the execution is
+     * stopped as a loop as soon as it is detected, using the Brent's cycle
+     * detection: the configuration is saved each time the quantity of steps
+     * since the last save reaches a power of two, and the current one is
+     * compared with it after each step. The hash of the tape is compared
+     * first, so the contents are compared only when a loop is very likely.
+     * The extra memory is a single configuration.
+     * 
+     * A machine that walks away over blank cells never repeats a
+     * configuration, so a shifted repetition is also detected: if the state
+     * is the saved one, the head moved d cells, the cells reached since the
+     * save were blank then, and the cells reached shifted by d are blank now,
+     * the machine will repeat the same steps shifted by d forever.
+     * 
+     * @param recordDeltas If the change made by each step should be recorded
+     * in the result.
+     * @param limits The step and time budgets.
+     * @param listener The listener that will receive the progress, or null.
+     */
+    private TMExecutionResult run( String str, TMAcceptanceType acceptanceType, 
+            boolean recordDeltas, TMExecutionLimits limits, TMProgressListener listener ) {
+        
+        if ( canExecute() && !isDeterministic() ) {
+            return new TMNondeterministicSearch( this, acceptanceType, limits, 
+                    recordDeltas, listener ).execute( str );
+        }
+        
+        TMExecutionResult result = new TMExecutionResult();
+        long count = 0;
         boolean halted = false;
-        boolean accepted = false;
-        tapeAfterAcceptsExecution = null;
-        ableToHalt = true;
+        
+        long maxSteps = limits.getMaxSteps();
+        long maxTime = limits.getMaxTime() * 1000000;
+        long progressInterval = ApplicationConstants.TURING_MACHINE_PROGRESS_INTERVAL * 1000000;
+        long start = System.nanoTime();
+        long lastReport = start;
+        long nextCheck = CLOCK_CHECK_STEPS;
         
         if ( canExecute() ) {
             
-            Map<TMState, List<TMTransition>> delta = getDelta();
-            rootId = new TMID( initialState, str, 0, null, Color.BLACK );
-            ids = new ArrayList<>();
+            TMActionTable table = getActionTable();
+            List<TMTapeDelta> deltas = recordDeltas ? new ArrayList<>() : null;
+            int state = table.getStateId( initialState );
+            TMTape tape = new TMTape( str );
+            int position = 0;
             
-            TMID node = rootId;
-            ids.add( node );
+            // configuration saved by the cycle detection
+            int savedState = -1;
+            int savedPosition = 0;
+            long savedHash = 0;
+            int savedStart = 0;
+            String savedContents = null;
+            long savedCount = 0;
+            long power = 1;
             
-            while ( !halted && count < ApplicationConstants.TURING_MACHINE_MAX_COUNT ) {
-                
-                halted = true;
+            // cells reached since the save, [minPosition, maxPosition]
+            int minPosition = 0;
+            int maxPosition = 0;
+            
+            while ( true ) {
                 
-                if ( DEBUG ) {
-                    System.out.println( "Processing: " + node );
+                if ( state == savedState ) {
+                    
+                    boolean loop;
+                    int shift = position - savedPosition;
+                    
+                    if ( shift == 0 ) {
+                        loop = tape.getHash() == savedHash && 
+                                tape.getCleanedStart() == savedStart && 
+                                tape.getCleanedContents().equals( savedContents );
+                    } else if ( shift > 0 ) {
+                        loop = ( savedContents.isEmpty() || 
+                                minPosition >= savedStart + savedContents.length() ) && 
+                                tape.isBlankFrom( minPosition + shift );
+                    } else {
+                        loop = ( savedContents.isEmpty() || maxPosition < savedStart ) && 
+                                tape.isBlankUpTo( maxPosition + shift );
+                    }
+                    
+                    if ( loop ) {
+                        result.setLoopLength( count - savedCount );
+                        break;
+                    }
+                    
                 }
                 
-                for ( TMTransition t : delta.get( node.getState() ) ) {
-
-                    if ( DEBUG ) {
-                        System.out.println( "  Transition: " + t );
-                    }
-
-                    for ( TMOperation o : t.getOperations() ) {
-
-                        if ( DEBUG ) {
-                            System.out.println( "    Operation: " + o );
-                        }
-
-                        // matches symbol
-                        if ( o.getReadSymbol() == node.getCharAtPosition() ) {
-
-                            if ( DEBUG ) {
-                                System.out.println( "      Matches symbol: " + o.getReadSymbol() );
-                            }
-
-                            // the derivation process creates a new id and transforms
-                            // the input (read and write on string)
-                            TMID newId = node.derive( t, o );
-                            node.addChild( newId );
-                            ids.add( newId );
-                            
-                            node = newId;
-                            halted = false;
-                            
-                            // trying to detect infinite loop
-                            count++;
-                            
-                        }
-
+                if ( savedState == -1 || count - savedCount == power ) {
+                    if ( savedState != -1 ) {
+                        power *= 2;
                     }
+                    savedState = state;
+                    savedPosition = position;
+                    savedHash = tape.getHash();
+                    savedStart = tape.getCleanedStart();
+                    savedContents = tape.getCleanedContents();
+                    savedCount = count;
+                    minPosition = position;
+                    maxPosition = position;
+                }
+                
+                // trying to detect infinite loop
+                if ( count >= maxSteps ) {
+                    result.setStepLimitReached( true );
+                    break;
+                }
+                
+                // the clock is read only from time to time
+                if ( count >= nextCheck ) {
+                    
+                    nextCheck = count + CLOCK_CHECK_STEPS;
+                    long now = System.nanoTime();
                     
-                    if ( !halted ) {
+                    if ( maxTime > 0 && now - start >= maxTime ) {
+                        result.setTimeLimitReached( true );
                         break;
                     }
-
+                    
+                    if ( listener != null && now - lastReport >= progressInterval ) {
+                        listener.progressMade( count, ( now - start ) / 1000000 );
+                        lastReport = now;
+                    }
+                    
+                }
+                
+                if ( DEBUG ) {
+                    System.out.println( "Processing: " + table.getState( state ) + " " + tape + " " + position );
+                }
+                
+                char symbol = tape.read( position );
+                int action = table.getAction( state, symbol );
+                
+                if ( action == -1 ) {
+                    halted = true;
+                    break;
+                }
+                
+                if ( DEBUG ) {
+                    System.out.println( "  Operation: " + table.getOperation( action ) );
+                }
+                
+                char write = table.getWriteSymbol( action );
+                tape.write( position, write );
+                state = table.getNextStateId( action );
+                
+                if ( recordDeltas ) {
+                    deltas.add( new TMTapeDelta( position, symbol, write, 
+                            table.getState( state ), table.getTransition( action ), 
+                            table.getOperation( action ) ) );
+                }
+                
+                position += table.getMove( action );
+                if ( position < minPosition ) {
+                    minPosition = position;
+                } else if ( position > maxPosition ) {
+                    maxPosition = position;
                 }
+                count++;
                 
             }
             
-            if ( count == ApplicationConstants.TURING_MACHINE_MAX_COUNT ) {
-                ids.clear();
-                ableToHalt = false;
-                accepted = false;
+            if ( recordDeltas ) {
+                result.setExecution( str, initialState, acceptanceType, deltas );
+            }
+            
+            result.setSteps( count );
+            result.setElapsedNanos( System.nanoTime() - start );
+            
+            if ( listener != null ) {
+                listener.progressMade( count, result.getElapsedTime() );
+            }
+            
+            if ( !halted ) {
+                result.setAbleToHalt( false );
             } else {
-
-                if ( acceptanceType == TMAcceptanceType.FINAL_STATE && node.getState().isFinal() ) {
-                    node.setAcceptedByFinalState( true );
-                    accepted = true;
+                
+                if ( acceptanceType == TMAcceptanceType.FINAL_STATE && 
+                        table.getState( state ).isFinal() ) {
+                    result.setAccepted( true );
                 } else if ( acceptanceType == TMAcceptanceType.HALT ) {
-                    node.setAcceptedByHalt( true );
-                    accepted = true;
+                    result.setAccepted( true );
                 }
-
-                if ( simulationSteps != null ) {
-
-                    List<TMID> pathIds = new ArrayList<>();
-                    TMID current = node;
-
-                    while ( current != null ) {
-                        pathIds.add( current );
-                        current = current.getParent();
-                    }
-
-                    for ( int i = pathIds.size()-1; i >= 0; i-- ) {
-                        simulationSteps.add( new TMSimulationStep( pathIds.get( i ) ) );
-                    }
-
-                }
-
-                tapeAfterAcceptsExecution = node.getCleanedString();
-            
+                
+                result.setTapeAfterExecution( tape.getCleanedContents() );
+                
             }
             
         }
         
-        return accepted;
+        return result;
         
     }
     
@@ -293,10 +477,12 @@ public class TM extends AbstractGeometricForm implements Cloneable {
                 initialState = state;
             }
             
+            ensureIndex();
+            indexState( state );
+            
         }
         
-        markAllCachesAsObsolete();
-        updateType();
+        refreshType();
         
     }
     
@@ -304,11 +490,14 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         
         if ( transition != null ) {
             
+            ensureIndex();
+            indexState( transition.getOriginState() );
+            indexState( transition.getTargetState() );
+            
             TMTransition tf = null;
             
-            for ( TMTransition t : transitions ) {
-                if ( t.getOriginState() == transition.getOriginState() && 
-                        t.getTargetState() == transition.getTargetState() ) {
+            for ( TMTransition t : delta.get( transition.getOriginState() ) ) {
+                if ( t.getTargetState() == transition.getTargetState() ) {
                     tf = t;
                     break;
                 }
@@ -317,14 +506,37 @@ public class TM extends AbstractGeometricForm implements Cloneable {
             if ( tf == null ) {
                 transition.setControlPointsVisible( transitionControlPointsVisible );
                 transitions.add( transition );
+                indexTransition( transition );
             } else {
                 tf.addOperations( transition.getOperations() );
+                reindexTransition( tf );
             }
             
         }
         
         updateTransitions();
-        markAllCachesAsObsolete();
+        refreshType();
+        
+    }
+    
+    /**
+     * Adds the states and the already merged transitions of a builder,
+     * computing the type, the caches and the geometry only once.
+     */
+    void addAll( List<TMState> states, List<TMTransition> transitions, TMState initialState ) {
+        
+        this.states.addAll( states );
+        this.transitions.addAll( transitions );
+        
+        if ( initialState != null ) {
+            this.initialState = initialState;
+        }
+        
+        for ( TMTransition t : transitions ) {
+            t.setControlPointsVisible( transitionControlPointsVisible );
+        }
+        
+        updateTransitions();
         updateType();
         
     }
@@ -383,15 +595,11 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         
         this.initialState = initialState;
         
-        markAllCachesAsObsolete();
-        updateType();
+        // the index doesn't depend on the initial state
+        refreshType();
         
     }
 
-    public boolean isAbleToHalt() {
-        return ableToHalt;
-    }
-
     public TMState getInitialState() {
         return initialState;
     }
@@ -402,68 +610,72 @@ public class TM extends AbstractGeometricForm implements Cloneable {
     
     public void removeState( TMState state ) {
         
+        ensureIndex();
+        
         if ( initialState == state ) {
             initialState = null;
         }
         
         states.remove( state );
         
-        List<TMTransition> ts = new ArrayList<>();
-        for ( TMTransition t : transitions ) {
-            if ( t.getOriginState() == state || t.getTargetState() == state ) {
-                ts.add( t );
-            }
+        Set<TMTransition> ts = new HashSet<>();
+        if ( delta.containsKey( state ) ) {
+            ts.addAll( delta.get( state ) );
+            ts.addAll( incoming.get( state ) );
         }
         
-        for ( TMTransition t : ts ) {
-            transitions.remove( t );
+        if ( !ts.isEmpty() ) {
+            transitions.removeIf( t -> ts.contains( t ) );
+            for ( TMTransition t : ts ) {
+                unindexTransition( t );
+            }
         }
         
-        markAllCachesAsObsolete();
-        updateType();
+        unindexState( state );
+        refreshType();
         
     }
     
     public void removeTransition( TMTransition transition ) {
-        transitions.remove( transition );
-        markAllCachesAsObsolete();
-        updateType();
+        
+        ensureIndex();
+        
+        if ( transitions.remove( transition ) ) {
+            unindexTransition( transition );
+        }
+        
+        refreshType();
+        
     }
     
+    /**
+     * Recomputes the type and rebuilds all the caches from scratch. Must be
+     * used after changing the operations of a transition directly, since
+     * these changes are not tracked by the incremental index.
+     */
     public void updateType() {
+        markAllCachesAsObsolete();
+        refreshType();
+    }
+    
+    /**
+     * Updates the type using the determinism counter of the index. A TM is
+     * deterministic if there is at most one operation for each state and
+     * read symbol.
+     */
+    private void refreshType() {
+        
+        // every change of the states and transitions ends here
+        actionTableUpToDate = false;
         
         if ( states.isEmpty() ) {
             type = TMType.EMPTY;
             return;
         }
         
-        Map<String, Integer> counts = new HashMap<>();
-        boolean nondeterminism = false;
-        
-        for ( TMTransition t : transitions ) {
-            
-            for ( TMOperation o : t.getOperations() ) {
-                
-                String k = String.format( "%s-%c", 
-                        t.getOriginState(), o.getReadSymbol() );
-                
-                Integer v = counts.get( k );
-                counts.put( k, v == null ? 1 : v+1 );
-                
-            }
-            
-        }
-        
-        for ( Map.Entry<String, Integer> e : counts.entrySet() ) {
-            
-            if ( e.getValue() > 1 ) {
-                nondeterminism = true;
-                break;
-            }
-            
-        }
+        ensureIndex();
         
-        if ( !nondeterminism ) {
+        if ( nondeterministicKeys == 0 ) {
             type = TMType.DTM;
         } else {
             type = TMType.NTM;
@@ -471,6 +683,24 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         
     }
     
+    /**
+     * Verifies if the TM is deterministic using the current transitions,
+     * even if the type was not updated.
+     * 
+     * @return true if the TM has states and is deterministic, false
+     * otherwise.
+     */
+    public synchronized boolean isDeterministic() {
+        
+        if ( states.isEmpty() ) {
+            return false;
+        }
+        
+        ensureIndex();
+        return nondeterministicKeys == 0;
+        
+    }
+    
     public String getFormalDefinition() {
         
         String def = String.format("T = { Q, %c, %c, %c, %s, %c, F }\n",
@@ -491,16 +721,9 @@ public class TM extends AbstractGeometricForm implements Cloneable {
     public Set<Character> getAlphabet() {
         
         if ( alphabet == null || !alphabetUpToDate ) {
-            
+            ensureIndex();
             alphabetUpToDate = true;
-            alphabet = new TreeSet<>();
-        
-            for ( TMTransition t : transitions ) {
-                for ( TMOperation o : t.getOperations() ) {
-                    alphabet.add( o.getReadSymbol() );
-                }
-            }
-        
+            alphabet = new TreeSet<>( alphabetCounts.keySet() );
         }
         
         return alphabet;
@@ -510,47 +733,229 @@ public class TM extends AbstractGeometricForm implements Cloneable {
     public Set<Character> getTapeAlphabet() {
         
         if ( tapeAlphabet == null || !tapeAlphabetUpToDate ) {
-            
+            ensureIndex();
             tapeAlphabetUpToDate = true;
-            tapeAlphabet = new TreeSet<>();
+            tapeAlphabet = new TreeSet<>( tapeAlphabetCounts.keySet() );
+        }
         
-            for ( TMTransition t : transitions ) {
-                for ( TMOperation o : t.getOperations() ) {
-                    tapeAlphabet.add( o.getReadSymbol() );
-                    tapeAlphabet.add( o.getWriteSymbol() );
-                }
-            }
+        return tapeAlphabet;
+        
+    }
+    
+    /**
+     * Gets the delta, building the index if it is obsolete. It is synchronized
+     * so concurrent executions of the same machine build it only once and
+     * see it completely built.
+     */
+    public synchronized Map<TMState, List<TMTransition>> getDelta() {
+        ensureIndex();
+        return delta;
+    }
+    
+    /**
+     * Gets the compiled action table, building it if it is obsolete. It is
+     * synchronized for the same reason of getDelta().
+     */
+    public synchronized TMActionTable getActionTable() {
+        
+        ensureIndex();
         
+        if ( actionTable == null || !actionTableUpToDate ) {
+            actionTableUpToDate = true;
+            actionTable = new TMActionTable( delta );
         }
         
-        return tapeAlphabet;
+        return actionTable;
         
     }
     
-    public Map<TMState, List<TMTransition>> getDelta() {
+    /**
+     * Builds the delta and the rest of the incremental index if they are
+     * obsolete. After that, the mutation methods keep them updated visiting
+     * only the affected states and transitions.
+     */
+    private void ensureIndex() {
         
         if ( delta == null || !deltaUpToDate ) {
             
             deltaUpToDate = true;
             
-            delta = new TreeMap<>();
+            // the caches derived from the index are rebuilt on demand
+            alphabetUpToDate = false;
+            tapeAlphabetUpToDate = false;
+            
+            delta = new LinkedHashMap<>();
+            incoming = new HashMap<>();
+            indexedOperations = new HashMap<>();
+            readCounts = new HashMap<>();
+            alphabetCounts = new HashMap<>();
+            tapeAlphabetCounts = new HashMap<>();
+            nondeterministicKeys = 0;
+            
             for ( TMState s : states ) {
-                delta.put( s, new ArrayList<>() );
+                indexState( s );
             }
-
+            
             for ( TMTransition t : transitions ) {
-                List<TMTransition> ts = delta.get( t.getOriginState() );
-                ts.add( t );
+                indexTransition( t );
             }
             
         }
         
-        return delta;
+    }
+    
+    private void indexState( TMState state ) {
+        
+        if ( !delta.containsKey( state ) ) {
+            delta.put( state, new ArrayList<>() );
+            incoming.put( state, new ArrayList<>() );
+            readCounts.put( state, new HashMap<>() );
+        }
         
     }
-
-    public String getTapeAfterAcceptsExecution() {
-        return tapeAfterAcceptsExecution;
+    
+    private void unindexState( TMState state ) {
+        delta.remove( state );
+        incoming.remove( state );
+        readCounts.remove( state );
+    }
+    
+    private void indexTransition( TMTransition transition ) {
+        
+        TMState origin = transition.getOriginState();
+        
+        indexState( origin );
+        indexState( transition.getTargetState() );
+        delta.get( origin ).add( transition );
+        incoming.get( transition.getTargetState() ).add( transition );
+        
+        // the indexed operations are copies, so a later removal subtracts
+        // exactly what was added
+        List<TMOperation> operations = copyOperations( transition.getOperations() );
+        indexedOperations.put( transition, operations );
+        addOperationsToIndex( origin, operations );
+        
+    }
+    
+    private void reindexTransition( TMTransition transition ) {
+        
+        List<TMOperation> oldOperations = indexedOperations.get( transition );
+        List<TMOperation> newOperations = copyOperations( transition.getOperations() );
+        
+        List<TMOperation> removed = new ArrayList<>( oldOperations );
+        removed.removeAll( newOperations );
+        List<TMOperation> added = new ArrayList<>( newOperations );
+        added.removeAll( oldOperations );
+        
+        indexedOperations.put( transition, newOperations );
+        removeOperationsFromIndex( transition.getOriginState(), removed );
+        addOperationsToIndex( transition.getOriginState(), added );
+        
+    }
+    
+    private void unindexTransition( TMTransition transition ) {
+        
+        List<TMOperation> operations = indexedOperations.remove( transition );
+        
+        if ( operations != null ) {
+            delta.get( transition.getOriginState() ).remove( transition );
+            incoming.get( transition.getTargetState() ).remove( transition );
+            removeOperationsFromIndex( transition.getOriginState(), operations );
+        }
+        
+    }
+    
+    private List<TMOperation> copyOperations( List<TMOperation> operations ) {
+        
+        List<TMOperation> copies = new ArrayList<>();
+        
+        for ( TMOperation o : operations ) {
+            copies.add( new TMOperation( o.getReadSymbol(), o.getWriteSymbol(), o.getType() ) );
+        }
+        
+        return copies;
+        
+    }
+    
+    private void addOperationsToIndex( TMState origin, List<TMOperation> operations ) {
+        
+        Map<Character, Integer> counts = readCounts.get( origin );
+        
+        for ( TMOperation o : operations ) {
+            
+            Integer v = counts.get( o.getReadSymbol() );
+            v = v == null ? 1 : v+1;
+            counts.put( o.getReadSymbol(), v );
+            
+            if ( v == 2 ) {
+                nondeterministicKeys++;
+            }
+            
+            if ( incrementCount( alphabetCounts, o.getReadSymbol() ) && alphabetUpToDate ) {
+                alphabet.add( o.getReadSymbol() );
+            }
+            if ( incrementCount( tapeAlphabetCounts, o.getReadSymbol() ) && tapeAlphabetUpToDate ) {
+                tapeAlphabet.add( o.getReadSymbol() );
+            }
+            if ( incrementCount( tapeAlphabetCounts, o.getWriteSymbol() ) && tapeAlphabetUpToDate ) {
+                tapeAlphabet.add( o.getWriteSymbol() );
+            }
+            
+        }
+        
+    }
+    
+    private void removeOperationsFromIndex( TMState origin, List<TMOperation> operations ) {
+        
+        Map<Character, Integer> counts = readCounts.get( origin );
+        
+        for ( TMOperation o : operations ) {
+            
+            int v = counts.get( o.getReadSymbol() ) - 1;
+            if ( v == 0 ) {
+                counts.remove( o.getReadSymbol() );
+            } else {
+                counts.put( o.getReadSymbol(), v );
+            }
+            
+            if ( v == 1 ) {
+                nondeterministicKeys--;
+            }
+            
+            if ( decrementCount( alphabetCounts, o.getReadSymbol() ) && alphabetUpToDate ) {
+                alphabet.remove( o.getReadSymbol() );
+            }
+            if ( decrementCount( tapeAlphabetCounts, o.getReadSymbol() ) && tapeAlphabetUpToDate ) {
+                tapeAlphabet.remove( o.getReadSymbol() );
+            }
+            if ( decrementCount( tapeAlphabetCounts, o.getWriteSymbol() ) && tapeAlphabetUpToDate ) {
+                tapeAlphabet.remove( o.getWriteSymbol() );
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * @return true if the symbol was not counted before.
+     */
+    private static boolean incrementCount( Map<Character, Integer> counts, char symbol ) {
+        Integer v = counts.get( symbol );
+        counts.put( symbol, v == null ? 1 : v+1 );
+        return v == null;
+    }
+    
+    /**
+     * @return true if the symbol is not counted anymore.
+     */
+    private static boolean decrementCount( Map<Character, Integer> counts, char symbol ) {
+        int v = counts.get( symbol ) - 1;
+        if ( v == 0 ) {
+            counts.remove( symbol );
+            return true;
+        }
+        counts.put( symbol, v );
+        return false;
     }
     
     private String getStatesString() {
@@ -683,14 +1088,6 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         return transitions;
     }
 
-    public TMID getRootId() {
-        return rootId;
-    }
-
-    public List<TMID> getIds() {
-        return ids;
-    }
-    
     public void deactivateAllStatesInSimulation() {
         for ( TMState s : states ) {
             s.setActiveInSimulation( false );
@@ -701,6 +1098,7 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         alphabetUpToDate = false;
         tapeAlphabetUpToDate = false;
         deltaUpToDate = false;
+        actionTableUpToDate = false;
     }
     
     public void merge( TM fa ) {
@@ -817,15 +1215,18 @@ public class TM extends AbstractGeometricForm implements Cloneable {
         
         TM c = (TM) super.clone();
         Map<TMState, TMState> ref = new HashMap<>();
-    
+        
+        // the caches are shared after super.clone()
+        c.markAllCachesAsObsolete();
         c.states = new ArrayList<>();
+        c.transitions = new ArrayList<>();
+        
         for ( TMState s : states ) {
             TMState n = s.clone();
             c.addState( n );
             ref.put( s, n );
         }
         
-        c.transitions = new ArrayList<>();
         for ( TMTransition t : transitions ) {
             TMTransition n = t.clone();
             n.setOriginState( ref.get( t.getOriginState() ) );
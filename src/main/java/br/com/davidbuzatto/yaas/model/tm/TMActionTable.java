@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled action table of a deterministic Turing Machine.
+ * 
+ * Each state receives a dense id and each read symbol an index, so the
+ * action of a state and a symbol is found in constant time by an array
+ * lookup, instead of visiting all the operations of the transitions of the
+ * state. The actions are kept in parallel arrays indexed by
+ * id * symbolCount + symbol index: the id of the next state (or -1 when
+ * there is no action), the symbol to be written and the movement of the
+ * head. The symbols are indexed by their distance to the smallest read
+ * symbol, since the tape alphabets are small and close to each other.
+ * 
+ * If the machine is nondeterministic, the first operation found for each
+ * state and symbol is kept.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMActionTable {
+    
+    private final TMState[] states;
+    private final Map<TMState, Integer> ids;
+    
+    private final char firstSymbol;
+    private final int symbolCount;
+    
+    private final int[] nextStates;
+    private final char[] writeSymbols;
+    private final int[] moves;
+    private final TMTransition[] transitions;
+    private final TMOperation[] operations;
+    
+    /**
+     * Compiles the action table.
+     * 
+     * @param delta The transitions of each state.
+     */
+    public TMActionTable( Map<TMState, List<TMTransition>> delta ) {
+        
+        states = new TMState[delta.size()];
+        ids = new IdentityHashMap<>();
+        
+        char min = Character.MAX_VALUE;
+        char max = Character.MIN_VALUE;
+        
+        for ( Map.Entry<TMState, List<TMTransition>> e : delta.entrySet() ) {
+            
+            states[ids.size()] = e.getKey();
+            ids.put( e.getKey(), ids.size() );
+            
+            for ( TMTransition t : e.getValue() ) {
+                for ( TMOperation o : t.getOperations() ) {
+                    min = (char) Math.min( min, o.getReadSymbol() );
+                    max = (char) Math.max( max, o.getReadSymbol() );
+                }
+            }
+            
+        }
+        
+        firstSymbol = min;
+        symbolCount = min > max ? 0 : max - min + 1;
+        
+        int size = states.length * symbolCount;
+        nextStates = new int[size];
+        writeSymbols = new char[size];
+        moves = new int[size];
+        transitions = new TMTransition[size];
+        operations = new TMOperation[size];
+        
+        Arrays.fill( nextStates, -1 );
+        
+        for ( Map.Entry<TMState, List<TMTransition>> e : delta.entrySet() ) {
+            
+            int base = ids.get( e.getKey() ) * symbolCount;
+            
+            for ( TMTransition t : e.getValue() ) {
+                for ( TMOperation o : t.getOperations() ) {
+                    
+                    int action = base + o.getReadSymbol() - firstSymbol;
+                    
+                    if ( nextStates[action] == -1 ) {
+                        nextStates[action] = ids.get( t.getTargetState() );
+                        writeSymbols[action] = o.getWriteSymbol();
+                        moves[action] = o.getType() == TMMovementType.MOVE_RIGHT ? 1 : -1;
+                        transitions[action] = t;
+                        operations[action] = o;
+                    }
+                    
+                }
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * @param state A state of the machine.
+     * @return The id of the state or -1 if it is not in the table.
+     */
+    public int getStateId( TMState state ) {
+        Integer id = ids.get( state );
+        return id == null ? -1 : id;
+    }
+    
+    public TMState getState( int id ) {
+        return states[id];
+    }
+    
+    /**
+     * Finds the action of a state and a read symbol.
+     * 
+     * @param stateId The id of the state.
+     * @param symbol The symbol under the head.
+     * @return The index of the action or -1 if there is none, so the machine
+     * halts.
+     */
+    public int getAction( int stateId, char symbol ) {
+        
+        int index = symbol - firstSymbol;
+        
+        if ( index < 0 || index >= symbolCount ) {
+            return -1;
+        }
+        
+        int action = stateId * symbolCount + index;
+        return nextStates[action] == -1 ? -1 : action;
+        
+    }
+    
+    public int getNextStateId( int action ) {
+        return nextStates[action];
+    }
+    
+    public char getWriteSymbol( int action ) {
+        return writeSymbols[action];
+    }
+    
+    /**
+     * @return 1 if the head moves to the right, -1 otherwise.
+     */
+    public int getMove( int action ) {
+        return moves[action];
+    }
+    
+    public TMTransition getTransition( int action ) {
+        return transitions[action];
+    }
+    
+    public TMOperation getOperation( int action ) {
+        return operations[action];
+    }
+    
+}
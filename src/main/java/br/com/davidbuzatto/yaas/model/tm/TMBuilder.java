@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builder for the programmatic construction of large Turing Machines.
+ * 
+ * The states and transitions are collected in bulk and the transitions with
+ * the same origin and target are merged using an (origin, target) index.
+ * The type, the caches and the geometry are computed only once, when the
+ * TM is built.
+ * 
+ * A builder must be used to build only one TM.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMBuilder {
+    
+    private final List<TMState> states;
+    private final List<TMTransition> transitions;
+    private final Map<TMState, Map<TMState, TMTransition>> index;
+    private TMState initialState;
+    
+    TMBuilder() {
+        states = new ArrayList<>();
+        transitions = new ArrayList<>();
+        index = new HashMap<>();
+    }
+    
+    /**
+     * Adds a state. As in {@link TM#addState(TMState)}, the first added
+     * state becomes the initial state if no state is marked as initial
+     * before it.
+     * 
+     * @param state The state to be added.
+     * @return This builder.
+     */
+    public TMBuilder addState( TMState state ) {
+        
+        if ( state != null ) {
+            
+            states.add( state );
+            
+            if ( state.isInitial() ) {
+                initialState = state;
+            }
+            
+            if ( initialState == null ) {
+                state.setInitial( true );
+                initialState = state;
+            }
+            
+        }
+        
+        return this;
+        
+    }
+    
+    public TMBuilder addStates( Collection<TMState> states ) {
+        for ( TMState s : states ) {
+            addState( s );
+        }
+        return this;
+    }
+    
+    /**
+     * Adds a transition. If there is already a transition with the same
+     * origin and target, the operations are merged into it.
+     * 
+     * @param transition The transition to be added.
+     * @return This builder.
+     */
+    public TMBuilder addTransition( TMTransition transition ) {
+        
+        if ( transition != null ) {
+            
+            Map<TMState, TMTransition> targets = index.get( transition.getOriginState() );
+            if ( targets == null ) {
+                targets = new HashMap<>();
+                index.put( transition.getOriginState(), targets );
+            }
+            
+            TMTransition tf = targets.get( transition.getTargetState() );
+            
+            if ( tf == null ) {
+                targets.put( transition.getTargetState(), transition );
+                transitions.add( transition );
+            } else {
+                tf.addOperations( transition.getOperations() );
+            }
+            
+        }
+        
+        return this;
+        
+    }
+    
+    public TMBuilder addTransitions( Collection<TMTransition> transitions ) {
+        for ( TMTransition t : transitions ) {
+            addTransition( t );
+        }
+        return this;
+    }
+    
+    /**
+     * Builds the Turing Machine.
+     * 
+     * @return A new TM with the added states and transitions.
+     */
+    public TM build() {
+        TM tm = new TM();
+        tm.addAll( states, transitions, initialState );
+        return tm;
+    }
+    
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A configuration (instantaneous description) of a Turing Machine used by
+ * the nondeterministic search: the current state, the tape without the
+ * surrounding blanks and the head position relative to the first symbol of
+ * that tape.
+ * 
+ * Since the machine can't observe absolute positions, configurations that
+ * differ only by a shift of the whole tape are equal. The parent, the applied
+ * operation and the depth are only used to rebuild the ids and don't take
+ * part in the equality.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMConfiguration {
+    
+    private final TMState state;
+    private final String tape;
+    private final int head;
+    private final int hash;
+    
+    private final TMConfiguration parent;
+    private final TMTransition transition;
+    private final TMOperation operation;
+    private final int depth;
+    
+    /**
+     * Creates the initial configuration.
+     * 
+     * @param state The initial state.
+     * @param str The input.
+     */
+    public TMConfiguration( TMState state, String str ) {
+        this( state, str.toCharArray(), 0, null, null, null, 0 );
+    }
+    
+    private TMConfiguration( TMState state, char[] cells, int head, 
+            TMConfiguration parent, TMTransition transition, 
+            TMOperation operation, int depth ) {
+        this( state, trim( cells ), head - firstSymbol( cells ), 
+                parent, transition, operation, depth );
+    }
+    
+    private TMConfiguration( TMState state, String tape, int head, 
+            TMConfiguration parent, TMTransition transition, 
+            TMOperation operation, int depth ) {
+        
+        this.state = state;
+        this.tape = tape;
+        this.head = tape.isEmpty() ? 0 : head;
+        this.parent = parent;
+        this.transition = transition;
+        this.operation = operation;
+        this.depth = depth;
+        
+        int h = 7;
+        h = 31 * h + System.identityHashCode( state );
+        h = 31 * h + this.head;
+        h = 31 * h + this.tape.hashCode();
+        this.hash = h;
+        
+    }
+    
+    /**
+     * @return The symbol under the head.
+     */
+    public char read() {
+        
+        if ( head < 0 || head >= tape.length() ) {
+            return CharacterConstants.BLANK_TAPE_SYMBOL;
+        }
+        
+        return tape.charAt( head );
+        
+    }
+    
+    /**
+     * Creates the configuration reached by applying an operation.
+     * 
+     * @param transition The transition of the operation.
+     * @param operation The operation, that must read the symbol under the
+     * head.
+     * @param keepParent If the new configuration should reference this one.
+     * @return The new configuration.
+     */
+    public TMConfiguration derive( TMTransition transition, TMOperation operation, 
+            boolean keepParent ) {
+        
+        int move = operation.getType() == TMMovementType.MOVE_RIGHT ? 1 : -1;
+        char write = operation.getWriteSymbol();
+        TMConfiguration newParent = keepParent ? this : null;
+        
+        // writing a blank outside of the tape doesn't change it
+        if ( ( head < 0 || head >= tape.length() ) && 
+                write == CharacterConstants.BLANK_TAPE_SYMBOL ) {
+            return new TMConfiguration( transition.getTargetState(), tape, head + move, 
+                    newParent, transition, operation, depth + 1 );
+        }
+        
+        int left = Math.min( 0, head );
+        int right = Math.max( tape.length(), head + 1 );
+        
+        char[] cells = new char[right - left];
+        Arrays.fill( cells, CharacterConstants.BLANK_TAPE_SYMBOL );
+        tape.getChars( 0, tape.length(), cells, -left );
+        cells[head - left] = write;
+        
+        return new TMConfiguration( transition.getTargetState(), cells, head - left + move, 
+                newParent, transition, operation, depth + 1 );
+        
+    }
+    
+    /**
+     * @return The position of the first non blank cell.
+     */
+    private static int firstSymbol( char[] cells ) {
+        
+        int start = 0;
+        
+        while ( start < cells.length && cells[start] == CharacterConstants.BLANK_TAPE_SYMBOL ) {
+            start++;
+        }
+        
+        return start;
+        
+    }
+    
+    /**
+     * @return The contents of the cells without the surrounding blanks.
+     */
+    private static String trim( char[] cells ) {
+        
+        int start = firstSymbol( cells );
+        int end = cells.length;
+        
+        while ( end > start && cells[end-1] == CharacterConstants.BLANK_TAPE_SYMBOL ) {
+            end--;
+        }
+        
+        return new String( cells, start, end - start );
+        
+    }
+    
+    /**
+     * Creates an id with this configuration. The tape of the id contains the
+     * cell under the head.
+     * 
+     * @return The id.
+     */
+    public TMID toId() {
+        
+        String string = tape;
+        int position = head;
+        
+        if ( head < 0 ) {
+            string = String.valueOf( CharacterConstants.BLANK_TAPE_SYMBOL ).repeat( -head ) + tape;
+            position = 0;
+        } else if ( head >= tape.length() && !tape.isEmpty() ) {
+            string = tape + String.valueOf( CharacterConstants.BLANK_TAPE_SYMBOL ).repeat( head - tape.length() + 1 );
+        }
+        
+        return new TMID( state, string, position, operation, 
+                transition == null ? Color.BLACK : transition.getStrokeColor() );
+        
+    }
+
+    public TMState getState() {
+        return state;
+    }
+
+    /**
+     * @return The tape without the surrounding blanks.
+     */
+    public String getTape() {
+        return tape;
+    }
+
+    public int getHead() {
+        return head;
+    }
+
+    public TMConfiguration getParent() {
+        return parent;
+    }
+
+    public TMTransition getTransition() {
+        return transition;
+    }
+
+    public TMOperation getOperation() {
+        return operation;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( obj == null ) {
+            return false;
+        }
+        if ( getClass() != obj.getClass() ) {
+            return false;
+        }
+        final TMConfiguration other = (TMConfiguration) obj;
+        if ( this.hash != other.hash ) {
+            return false;
+        }
+        if ( this.state != other.state ) {
+            return false;
+        }
+        if ( this.head != other.head ) {
+            return false;
+        }
+        return this.tape.equals( other.tape );
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "(%s, %s, %d)", state, tape, head );
+    }
+    
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import br.com.davidbuzatto.yaas.util.ApplicationConstants;
+
+/**
+ * Budgets of an execution of a Turing Machine.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMExecutionLimits {
+    
+    private final long maxSteps;
+    private final long maxTime;
+    
+    /**
+     * Creates the limits of an execution.
+     * 
+     * @param maxSteps Maximum quantity of steps. The execution stops when it
+     * is reached.
+     * @param maxTime Maximum running time in milliseconds, or zero for no
+     * time limit.
+     */
+    public TMExecutionLimits( long maxSteps, long maxTime ) {
+        
+        if ( maxSteps < 1 || maxTime < 0 ) {
+            throw new IllegalArgumentException( 
+                    "The step limit must be positive and the time limit can't be negative." );
+        }
+        
+        this.maxSteps = maxSteps;
+        this.maxTime = maxTime;
+        
+    }
+    
+    /**
+     * @return The limits used when the ids are created and none are
+     * informed.
+     */
+    public static TMExecutionLimits getDefaultLimits() {
+        return new TMExecutionLimits( 
+                ApplicationConstants.TURING_MACHINE_MAX_COUNT, 0 );
+    }
+    
+    /**
+     * @return The limits used when the ids are not created and none are
+     * informed.
+     */
+    public static TMExecutionLimits getDefaultHeadlessLimits() {
+        return new TMExecutionLimits( 
+                ApplicationConstants.TURING_MACHINE_HEADLESS_MAX_COUNT, 
+                ApplicationConstants.TURING_MACHINE_HEADLESS_MAX_TIME );
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TMExecutionLimits{" + "maxSteps=" + maxSteps + ", maxTime=" + maxTime + '}';
+    }
+    
+}
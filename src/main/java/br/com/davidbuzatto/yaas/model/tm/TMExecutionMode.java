@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+/**
+ * Execution engine used by a Turing Machine to decide the membership of a
+ * string.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public enum TMExecutionMode {
+    
+    /**
+     * Creates an id for each step, used by the id viewer and the simulation.
+     */
+    ID_TREE,
+    
+    /**
+     * Runs the machine over a single mutable tape, without creating the ids.
+     * Only the result and the final tape are available.
+     */
+    HEADLESS
+    
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of an execution of a Turing Machine.
+ * 
+ * Each execution creates its own result, so the same machine can be executed
+ * by several threads at the same time. When the changes made by each step
+ * were recorded, the ids are rebuilt from them the first time they are
+ * requested. The configurations explored by the search of a nondeterministic
+ * machine are kept in the same way, and they originate a tree of ids.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMExecutionResult {
+    
+    private boolean accepted;
+    private boolean ableToHalt;
+    private boolean stepLimitReached;
+    private boolean timeLimitReached;
+    private boolean cellLimitReached;
+    private long loopLength;
+    private String tapeAfterExecution;
+    private long steps;
+    private long elapsedNanos;
+    
+    // recorded execution, used to build the ids
+    private String input;
+    private TMState initialState;
+    private TMAcceptanceType acceptanceType;
+    private List<TMTapeDelta> deltas;
+    private List<TMConfiguration> configurations;
+    private TMConfiguration acceptedConfiguration;
+    
+    private TMID rootId;
+    private List<TMID> ids;
+    private TMID acceptedId;
+    
+    TMExecutionResult() {
+        ableToHalt = true;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    void setAccepted( boolean accepted ) {
+        this.accepted = accepted;
+    }
+
+    /**
+     * @return false if the machine didn't halt within the step or the time
+     * budget or if it loops forever, true otherwise. For a nondeterministic
+     * machine, it is false if no branch accepted and the search was cut
+     * before exploring all the configurations.
+     */
+    public boolean isAbleToHalt() {
+        return ableToHalt;
+    }
+
+    void setAbleToHalt( boolean ableToHalt ) {
+        this.ableToHalt = ableToHalt;
+    }
+
+    public boolean isStepLimitReached() {
+        return stepLimitReached;
+    }
+
+    void setStepLimitReached( boolean stepLimitReached ) {
+        this.stepLimitReached = stepLimitReached;
+    }
+
+    public boolean isTimeLimitReached() {
+        return timeLimitReached;
+    }
+
+    void setTimeLimitReached( boolean timeLimitReached ) {
+        this.timeLimitReached = timeLimitReached;
+    }
+
+    /**
+     * @return true if the search of a nondeterministic machine was stopped
+     * because the stored configurations reached the limit of tape cells.
+     */
+    public boolean isCellLimitReached() {
+        return cellLimitReached;
+    }
+
+    void setCellLimitReached( boolean cellLimitReached ) {
+        this.cellLimitReached = cellLimitReached;
+    }
+
+    /**
+     * @return true if the execution was stopped because a configuration
+     * repeated, so the machine would never halt.
+     */
+    public boolean isLoopDetected() {
+        return loopLength > 0;
+    }
+
+    /**
+     * @return The quantity of steps between two occurrences of the repeated
+     * configuration, or zero if no loop was detected.
+     */
+    public long getLoopLength() {
+        return loopLength;
+    }
+
+    void setLoopLength( long loopLength ) {
+        this.loopLength = loopLength;
+    }
+
+    /**
+     * @return The quantity of steps executed.
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    void setSteps( long steps ) {
+        this.steps = steps;
+    }
+
+    /**
+     * @return The running time in milliseconds.
+     */
+    public long getElapsedTime() {
+        return elapsedNanos / 1000000;
+    }
+
+    void setElapsedNanos( long elapsedNanos ) {
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public double getStepsPerSecond() {
+        return elapsedNanos == 0 ? 0 : steps * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return The tape when the machine halted, without the surrounding
+     * blanks, or null if it didn't halt. For a nondeterministic machine, it is
+     * the tape of the accepting branch, or null if there is none.
+     */
+    public String getTapeAfterExecution() {
+        return tapeAfterExecution;
+    }
+
+    void setTapeAfterExecution( String tapeAfterExecution ) {
+        this.tapeAfterExecution = tapeAfterExecution;
+    }
+    
+    void setExecution( String input, TMState initialState, 
+            TMAcceptanceType acceptanceType, List<TMTapeDelta> deltas ) {
+        this.input = input;
+        this.initialState = initialState;
+        this.acceptanceType = acceptanceType;
+        this.deltas = deltas;
+    }
+    
+    void setSearch( TMAcceptanceType acceptanceType, 
+            List<TMConfiguration> configurations, 
+            TMConfiguration acceptedConfiguration ) {
+        this.acceptanceType = acceptanceType;
+        this.configurations = configurations;
+        this.acceptedConfiguration = acceptedConfiguration;
+    }
+    
+    /**
+     * @return The changes made by each step, in order, or null if they were
+     * not recorded.
+     */
+    public List<TMTapeDelta> getDeltas() {
+        return deltas;
+    }
+
+    /**
+     * @return The first id or null if the execution was not recorded.
+     */
+    public TMID getRootId() {
+        buildIds();
+        return rootId;
+    }
+
+    /**
+     * @return The ids of the execution, in order. It is empty if the
+     * execution was not recorded or the machine didn't halt. For a
+     * nondeterministic machine, they are the ids of all the explored
+     * configurations, in breadth-first order.
+     */
+    public List<TMID> getIds() {
+        buildIds();
+        return ids;
+    }
+    
+    /**
+     * @return The ids from the first one to the one where the machine halted
+     * or, for a nondeterministic machine, to the accepting one. It is empty if
+     * the execution was not recorded, the machine didn't halt or no branch
+     * of a nondeterministic machine accepted.
+     */
+    public List<TMID> getPath() {
+        
+        buildIds();
+        
+        if ( configurations == null ) {
+            return ids;
+        }
+        
+        List<TMID> path = new ArrayList<>();
+        
+        for ( TMID id = acceptedId; id != null; id = id.getParent() ) {
+            path.add( id );
+        }
+        Collections.reverse( path );
+        
+        return path;
+        
+    }
+    
+    /**
+     * Replays the recorded steps from the initial id.
+     */
+    private void buildIds() {
+        
+        if ( ids != null ) {
+            return;
+        }
+        
+        ids = new ArrayList<>();
+        
+        if ( configurations != null ) {
+            buildSearchIds();
+            return;
+        }
+        
+        if ( deltas == null ) {
+            return;
+        }
+        
+        rootId = new TMID( initialState, input, 0, null, Color.BLACK );
+        
+        if ( !ableToHalt ) {
+            return;
+        }
+        
+        TMID node = rootId;
+        ids.add( node );
+        
+        for ( TMTapeDelta d : deltas ) {
+            TMID newId = node.derive( d.getTransition(), d.getOperation() );
+            node.addChild( newId );
+            ids.add( newId );
+            node = newId;
+        }
+        
+        if ( accepted ) {
+            if ( acceptanceType == TMAcceptanceType.FINAL_STATE ) {
+                node.setAcceptedByFinalState( true );
+            } else {
+                node.setAcceptedByHalt( true );
+            }
+        }
+        
+    }
+
+    /**
+     * Creates an id for each explored configuration, linked to the id of the
+     * configuration that originated it.
+     */
+    private void buildSearchIds() {
+        
+        Map<TMConfiguration, TMID> created = new IdentityHashMap<>();
+        
+        for ( TMConfiguration c : configurations ) {
+            
+            TMID id = c.toId();
+            TMID parent = created.get( c.getParent() );
+            
+            if ( parent == null ) {
+                rootId = id;
+            } else {
+                parent.addChild( id );
+            }
+            
+            created.put( c, id );
+            
+            if ( ableToHalt ) {
+                ids.add( id );
+            }
+            
+        }
+        
+        acceptedId = created.get( acceptedConfiguration );
+        
+        if ( acceptedId != null ) {
+            if ( acceptanceType == TMAcceptanceType.FINAL_STATE ) {
+                acceptedId.setAcceptedByFinalState( true );
+            } else {
+                acceptedId.setAcceptedByHalt( true );
+            }
+        }
+        
+    }
+
+    @Override
+    public String toString() {
+        return "TMExecutionResult{" + "accepted=" + accepted + 
+                ", ableToHalt=" + ableToHalt + 
+                ", loopLength=" + loopLength + 
+                ", tapeAfterExecution=" + tapeAfterExecution + 
+                ", steps=" + steps + 
+                ", elapsedTime=" + getElapsedTime() + '}';
+    }
+    
+}
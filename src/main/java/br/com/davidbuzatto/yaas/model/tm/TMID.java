@@ -31,6 +31,9 @@ import java.util.Objects;
 /**
  * This class models Turing Machine Instantaneous Descriptions (IDs).
  * 
+ * The hash code is computed at construction, since the ids are compared
+ * while the machine is running.
+ * 
  * @author Prof. Dr. David Buzatto
  */
 public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
@@ -41,6 +44,7 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
     private String string;
     private TMOperation operation;
     private int position;
+    private int hash;
     
     private TMID parent;
     private List<TMID> children;
@@ -50,9 +54,12 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
     private Color acceptedStrokeColor;
     private Color acceptedFillColor;
     
+    // the text and its metrics are computed only when the id is drawn or
+    // laid out by a viewer, since most of the ids are never displayed
     private String text;
     private int textWidth;
     private int textHeight;
+    private boolean metricsUpToDate;
     private Color textColor;
     
     private boolean activeInSimulation;
@@ -67,6 +74,13 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
         this.position = position;
         this.operation = operation;
         
+        int h = 7;
+        h = 29 * h + Objects.hashCode( this.state );
+        h = 29 * h + Objects.hashCode( this.string );
+        h = 29 * h + Objects.hashCode( this.operation );
+        h = 29 * h + this.position;
+        this.hash = h;
+        
         this.font = DrawingConstants.DEFAULT_FONT;
         this.textColor = DrawingConstants.TMID_DEFAULT_TEXT_COLOR;
         
@@ -75,7 +89,6 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
         
         setStrokeColor( strokeColor );
         setAcceptedStrokeColor( DrawingConstants.TMID_DEFAULT_ACCEPTED_COLOR );
-        setText( toString() );
         
     }
     
@@ -86,10 +99,25 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
 
     public void setText( String text ) {
         this.text = text;
-        LineMetrics lm = Utils.getLineMetrics( text, font );
-        FontMetrics fm = Utils.getFontMetrics( font );
-        textWidth = fm.stringWidth( text );
-        textHeight = (int) ( lm.getHeight() / 2 );
+        this.metricsUpToDate = false;
+    }
+    
+    public String getText() {
+        if ( text == null ) {
+            text = toString();
+        }
+        return text;
+    }
+    
+    private void updateMetrics() {
+        if ( !metricsUpToDate ) {
+            String t = getText();
+            LineMetrics lm = Utils.getLineMetrics( t, font );
+            FontMetrics fm = Utils.getFontMetrics( font );
+            textWidth = fm.stringWidth( t );
+            textHeight = (int) ( lm.getHeight() / 2 );
+            metricsUpToDate = true;
+        }
     }
 
     public TMOperation getOperation() {
@@ -103,6 +131,8 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
     @Override
     public void draw( Graphics2D g2d ) {
         
+        updateMetrics();
+        
         g2d = (Graphics2D) g2d.create();
         
         g2d.setFont( font );
@@ -136,7 +166,7 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
         }
         
         g2d.setColor( textColor );
-        g2d.drawString( text, x1 - textWidth / 2, y1 + textHeight / 2 );
+        g2d.drawString( getText(), x1 - textWidth / 2, y1 + textHeight / 2 );
         
         g2d.dispose();
         
@@ -149,34 +179,50 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
     
     public TMID derive( TMTransition transition, TMOperation operation ) {
         
-        String pre = string.substring( 0, position );
-        String pos = string.substring( position+1 );
-        String newString = pre + operation.getWriteSymbol() + pos;
-        
+        // an empty tape has one blank cell under the head
+        int length = Math.max( string.length(), 1 );
+        int writePosition = position;
         int newPosition = position + 
                 (operation.getType() == TMMovementType.MOVE_RIGHT ? 1 : -1 );
         
-        if ( newPosition == newString.length() ) {
-            newString += CharacterConstants.BLANK_TAPE_SYMBOL;
-        } else if ( newPosition == -1 ) {
-            newString = CharacterConstants.BLANK_TAPE_SYMBOL + newString;
-        }
+        // the tape is copied only once, with room for a new blank cell if
+        // the head leaves it
+        char[] tape;
         
-        if ( newPosition < 0 ) {
+        if ( newPosition == length ) {
+            tape = new char[length+1];
+            tape[length] = CharacterConstants.BLANK_TAPE_SYMBOL;
+            copyTape( tape, 0 );
+        } else if ( newPosition == -1 ) {
+            tape = new char[length+1];
+            tape[0] = CharacterConstants.BLANK_TAPE_SYMBOL;
+            copyTape( tape, 1 );
+            writePosition++;
             newPosition = 0;
-        } else if ( newPosition >= newString.length() ) {
-            newPosition = newString.length()-1;
+        } else {
+            tape = new char[length];
+            copyTape( tape, 0 );
         }
         
+        tape[writePosition] = operation.getWriteSymbol();
+        
         return new TMID( 
                 transition.getTargetState(), 
-                newString, 
+                new String( tape ), 
                 newPosition, 
                 operation, 
                 transition.getStrokeColor() );
         
     }
     
+    private void copyTape( char[] tape, int start ) {
+        if ( string.isEmpty() ) {
+            tape[start] = CharacterConstants.BLANK_TAPE_SYMBOL;
+        } else {
+            string.getChars( 0, string.length(), tape, start );
+        }
+    }
+    
     public TMState getState() {
         return state;
     }
@@ -244,10 +290,12 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
     }
 
     public int getTextWidth() {
+        updateMetrics();
         return textWidth;
     }
 
     public int getTextHeight() {
+        updateMetrics();
         return textHeight;
     }
     
@@ -258,11 +306,6 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
 
     @Override
     public int hashCode() {
-        int hash = 7;
-        hash = 29 * hash + Objects.hashCode( this.state );
-        hash = 29 * hash + Objects.hashCode( this.string );
-        hash = 29 * hash + Objects.hashCode( this.operation );
-        hash = 29 * hash + this.position;
         return hash;
     }
 
@@ -278,6 +321,9 @@ public class TMID extends AbstractGeometricForm implements Comparable<TMID> {
             return false;
         }
         final TMID other = (TMID) obj;
+        if ( this.hash != other.hash ) {
+            return false;
+        }
         if ( this.position != other.position ) {
             return false;
         }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import br.com.davidbuzatto.yaas.util.ApplicationConstants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Breadth-first search over the configurations of a nondeterministic Turing
+ * Machine.
+ * 
+ * Every operation that reads the symbol under the head starts a branch. A
+ * branch halts when no operation can be applied, and it accepts if it halts
+ * (HALT acceptance) or if it halts in a final state (FINAL_STATE acceptance),
+ * as in the deterministic execution. The search stops as soon as a branch
+ * accepts, so an accepting branch is found even if other branches never
+ * halt.
+ * 
+ * Each distinct configuration is explored only once. The search is
+ * conclusive when every reachable configuration was explored, so a string
+ * is rejected only if all branches halt or cycle without accepting. When
+ * the step or time budget or the memory bound is reached, the result is
+ * marked as unable to halt. The memory is bounded by the total size of the
+ * tapes of the kept configurations, since the tape of a branch that never
+ * halts can keep growing.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMNondeterministicSearch {
+    
+    private static final int CLOCK_CHECK_STEPS = 1024;
+    
+    // cost of a configuration besides its tape, measured in tape cells
+    private static final int CONFIGURATION_OVERHEAD = 32;
+    
+    private final TM tm;
+    private final TMAcceptanceType acceptanceType;
+    private final TMExecutionLimits limits;
+    private final long maxCells;
+    private final boolean keepTree;
+    private final TMProgressListener listener;
+    
+    /**
+     * Creates a search.
+     * 
+     * @param tm The Turing Machine.
+     * @param acceptanceType The acceptance type.
+     * @param limits The step and time budgets, where each explored
+     * configuration counts as a step.
+     * @param keepTree If the explored configurations should be kept in the
+     * result, so the branching ids can be built.
+     * @param listener The listener that will receive the progress, or null.
+     */
+    public TMNondeterministicSearch( TM tm, TMAcceptanceType acceptanceType, 
+            TMExecutionLimits limits, boolean keepTree, TMProgressListener listener ) {
+        this.tm = tm;
+        this.acceptanceType = acceptanceType;
+        this.limits = limits;
+        this.maxCells = ApplicationConstants.TURING_MACHINE_NTM_MAX_CELLS;
+        this.keepTree = keepTree;
+        this.listener = listener;
+    }
+    
+    /**
+     * Executes the search.
+     * 
+     * @param str The string to be tested.
+     * @return The result of the search. The tape after the execution is the
+     * one of the accepting branch.
+     */
+    public TMExecutionResult execute( String str ) {
+        
+        TMExecutionResult result = new TMExecutionResult();
+        
+        if ( !tm.canExecute() ) {
+            return result;
+        }
+        
+        long count = 0;
+        long maxSteps = limits.getMaxSteps();
+        long maxTime = limits.getMaxTime() * 1000000;
+        long progressInterval = ApplicationConstants.TURING_MACHINE_PROGRESS_INTERVAL * 1000000;
+        long start = System.nanoTime();
+        long lastReport = start;
+        long nextCheck = CLOCK_CHECK_STEPS;
+        boolean exhaustive = false;
+        long cells = 0;
+        
+        Map<TMState, List<TMTransition>> delta = tm.getDelta();
+        Set<TMConfiguration> seen = new HashSet<>();
+        ArrayDeque<TMConfiguration> frontier = new ArrayDeque<>();
+        List<TMConfiguration> configurations = keepTree ? new ArrayList<>() : null;
+        TMConfiguration accepted = null;
+        
+        TMConfiguration initial = new TMConfiguration( tm.getInitialState(), str );
+        seen.add( initial );
+        cells += initial.getTape().length() + CONFIGURATION_OVERHEAD;
+        frontier.add( initial );
+        if ( keepTree ) {
+            configurations.add( initial );
+        }
+        
+        search:
+        while ( true ) {
+            
+            if ( frontier.isEmpty() ) {
+                exhaustive = true;
+                break;
+            }
+            
+            if ( count >= maxSteps ) {
+                result.setStepLimitReached( true );
+                break;
+            }
+            
+            // the clock is read only from time to time
+            if ( count >= nextCheck ) {
+                
+                nextCheck = count + CLOCK_CHECK_STEPS;
+                long now = System.nanoTime();
+                
+                if ( maxTime > 0 && now - start >= maxTime ) {
+                    result.setTimeLimitReached( true );
+                    break;
+                }
+                
+                if ( listener != null && now - lastReport >= progressInterval ) {
+                    listener.progressMade( count, ( now - start ) / 1000000 );
+                    lastReport = now;
+                }
+                
+            }
+            
+            TMConfiguration c = frontier.poll();
+            char symbol = c.read();
+            boolean halted = true;
+            count++;
+            
+            for ( TMTransition t : delta.get( c.getState() ) ) {
+                for ( TMOperation o : t.getOperations() ) {
+                    
+                    if ( o.getReadSymbol() != symbol ) {
+                        continue;
+                    }
+                    
+                    halted = false;
+                    TMConfiguration child = c.derive( t, o, keepTree );
+                    
+                    if ( seen.add( child ) ) {
+                        
+                        cells += child.getTape().length() + CONFIGURATION_OVERHEAD;
+                        if ( cells > maxCells ) {
+                            result.setCellLimitReached( true );
+                            break search;
+                        }
+                        
+                        frontier.add( child );
+                        if ( keepTree ) {
+                            configurations.add( child );
+                        }
+                        
+                    }
+                    
+                }
+            }
+            
+            if ( halted && ( acceptanceType == TMAcceptanceType.HALT || c.getState().isFinal() ) ) {
+                accepted = c;
+                break;
+            }
+            
+        }
+        
+        result.setSteps( count );
+        result.setElapsedNanos( System.nanoTime() - start );
+        
+        if ( listener != null ) {
+            listener.progressMade( count, result.getElapsedTime() );
+        }
+        
+        if ( accepted != null ) {
+            result.setAccepted( true );
+            result.setTapeAfterExecution( accepted.getTape() );
+        } else if ( !exhaustive ) {
+            result.setAbleToHalt( false );
+        }
+        
+        if ( keepTree ) {
+            result.setSearch( acceptanceType, configurations, accepted );
+        }
+        
+        return result;
+        
+    }
+    
+}
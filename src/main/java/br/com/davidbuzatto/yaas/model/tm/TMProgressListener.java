@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+/**
+ * Receives the progress of a long execution of a Turing Machine.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+@FunctionalInterface
+public interface TMProgressListener {
+    
+    /**
+     * Called periodically during the execution and once when it ends, in
+     * the thread that runs it.
+     * 
+     * @param steps The quantity of steps executed so far.
+     * @param elapsedTime The running time so far, in milliseconds.
+     */
+    void progressMade( long steps, long elapsedTime );
+    
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+import br.com.davidbuzatto.yaas.util.CharacterConstants;
+import java.util.Arrays;
+
+/**
+ * A mutable tape of a Turing Machine that grows in both directions.
+ * 
+ * The cells are kept in an array with free room on both sides of the used
+ * portion, which is doubled when the head writes outside of it, so reading
+ * and writing a cell take constant amortized time. The cells that were never
+ * written contain the blank symbol.
+ * 
+ * A hash of the contents is updated by each write, so a configuration of the
+ * machine can be compared with a previous one in constant time. The hash of
+ * the tape is the sum of the hashes of its non blank cells, where each one
+ * depends on the position and on the symbol.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMTape {
+    
+    private char[] cells;
+    
+    // index in cells of the position 0
+    private int origin;
+    
+    // used portion of the tape, [left, right)
+    private int left;
+    private int right;
+    
+    private long hash;
+    
+    /**
+     * Creates a tape with the input starting at position 0.
+     * 
+     * @param str The input.
+     */
+    public TMTape( String str ) {
+        
+        int length = str.length();
+        cells = new char[length * 2 + 16];
+        Arrays.fill( cells, CharacterConstants.BLANK_TAPE_SYMBOL );
+        
+        origin = ( cells.length - length ) / 2;
+        str.getChars( 0, length, cells, origin );
+        
+        left = 0;
+        right = length;
+        
+        for ( int i = 0; i < length; i++ ) {
+            hash += cellHash( i, str.charAt( i ) );
+        }
+        
+    }
+    
+    public char read( int position ) {
+        
+        int index = origin + position;
+        
+        if ( index < 0 || index >= cells.length ) {
+            return CharacterConstants.BLANK_TAPE_SYMBOL;
+        }
+        
+        return cells[index];
+        
+    }
+    
+    public void write( int position, char symbol ) {
+        
+        if ( origin + position < 0 || origin + position >= cells.length ) {
+            grow( position );
+        }
+        
+        int index = origin + position;
+        char old = cells[index];
+        
+        if ( old != symbol ) {
+            hash += cellHash( position, symbol ) - cellHash( position, old );
+            cells[index] = symbol;
+        }
+        
+        if ( position < left ) {
+            left = position;
+        }
+        
+        if ( position >= right ) {
+            right = position + 1;
+        }
+        
+    }
+    
+    /**
+     * Copies the used portion to a new array that contains the given
+     * position and has free room on both sides as big as the used portion.
+     */
+    private void grow( int position ) {
+        
+        int used = right - left;
+        int room = Math.max( used, 16 );
+        
+        int newLeft = Math.min( left, position );
+        int newRight = Math.max( right, position + 1 );
+        
+        char[] newCells = new char[( newRight - newLeft ) + room * 2];
+        Arrays.fill( newCells, CharacterConstants.BLANK_TAPE_SYMBOL );
+        
+        int newOrigin = room - newLeft;
+        System.arraycopy( cells, origin + left, newCells, newOrigin + left, used );
+        
+        cells = newCells;
+        origin = newOrigin;
+        
+    }
+    
+    /**
+     * Hashes a cell, mixing the bits of the position and of the symbol
+     * (SplitMix64 finalizer). Blank cells don't take part in the hash.
+     */
+    private static long cellHash( int position, char symbol ) {
+        
+        if ( symbol == CharacterConstants.BLANK_TAPE_SYMBOL ) {
+            return 0;
+        }
+        
+        long z = ( (long) position << 16 ) ^ symbol;
+        z = ( z ^ ( z >>> 30 ) ) * 0xbf58476d1ce4e5b9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94d049bb133111ebL;
+        return z ^ ( z >>> 31 );
+        
+    }
+    
+    /**
+     * @return The hash of the contents. Equal contents have equal hashes.
+     */
+    public long getHash() {
+        return hash;
+    }
+    
+    /**
+     * @return The position of the leftmost non blank cell, or zero if the
+     * tape is empty.
+     */
+    public int getCleanedStart() {
+        
+        for ( int i = left; i < right; i++ ) {
+            if ( cells[origin + i] != CharacterConstants.BLANK_TAPE_SYMBOL ) {
+                return i;
+            }
+        }
+        
+        return 0;
+        
+    }
+    
+    /**
+     * @return true if all the cells from the given position to the right
+     * contain the blank symbol, false otherwise.
+     */
+    public boolean isBlankFrom( int position ) {
+        
+        for ( int i = right - 1; i >= left && i >= position; i-- ) {
+            if ( cells[origin + i] != CharacterConstants.BLANK_TAPE_SYMBOL ) {
+                return false;
+            }
+        }
+        
+        return true;
+        
+    }
+    
+    /**
+     * @return true if all the cells from the given position to the left
+     * contain the blank symbol, false otherwise.
+     */
+    public boolean isBlankUpTo( int position ) {
+        
+        for ( int i = left; i < right && i <= position; i++ ) {
+            if ( cells[origin + i] != CharacterConstants.BLANK_TAPE_SYMBOL ) {
+                return false;
+            }
+        }
+        
+        return true;
+        
+    }
+    
+    /**
+     * @return The used portion of the tape, from the leftmost to the
+     * rightmost cell that was written or was part of the input.
+     */
+    public String getContents() {
+        return new String( cells, origin + left, right - left );
+    }
+    
+    /**
+     * @return The used portion of the tape without the surrounding blanks.
+     */
+    public String getCleanedContents() {
+        
+        int start = origin + getCleanedStart();
+        int end = origin + right;
+        
+        while ( end > start && cells[end-1] == CharacterConstants.BLANK_TAPE_SYMBOL ) {
+            end--;
+        }
+        
+        return start >= end ? "" : new String( cells, start, end - start );
+        
+    }
+
+    @Override
+    public String toString() {
+        return getContents();
+    }
+    
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2023 Prof. Dr. David Buzatto
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.com.davidbuzatto.yaas.model.tm;
+
+/**
+ * A step of an execution of a Turing Machine, recorded as the change it made
+ * to the tape and to the current state, so the ids can be rebuilt when they
+ * are needed.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TMTapeDelta {
+    
+    private final int position;
+    private final char oldSymbol;
+    private final char newSymbol;
+    private final TMState state;
+    private final TMTransition transition;
+    private final TMOperation operation;
+    
+    /**
+     * Creates a delta.
+     * 
+     * @param position The position of the written cell.
+     * @param oldSymbol The symbol read from the cell.
+     * @param newSymbol The symbol written to the cell.
+     * @param state The state after the step.
+     * @param transition The transition used in the step.
+     * @param operation The operation used in the step.
+     */
+    public TMTapeDelta( int position, char oldSymbol, char newSymbol, 
+            TMState state, TMTransition transition, TMOperation operation ) {
+        this.position = position;
+        this.oldSymbol = oldSymbol;
+        this.newSymbol = newSymbol;
+        this.state = state;
+        this.transition = transition;
+        this.operation = operation;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public char getOldSymbol() {
+        return oldSymbol;
+    }
+
+    public char getNewSymbol() {
+        return newSymbol;
+    }
+
+    public TMState getState() {
+        return state;
+    }
+
+    public TMTransition getTransition() {
+        return transition;
+    }
+
+    public TMOperation getOperation() {
+        return operation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "(%d, %c -> %c, %s)", position, oldSymbol, newSymbol, state );
+    }
+    
+}
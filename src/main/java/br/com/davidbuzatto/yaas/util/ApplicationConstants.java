@@ -31,12 +31,43 @@ public interface ApplicationConstants {
     public static final String LIGHT_THEME = "LIGHT";
     public static final String DARK_THEME = "DARK";
     
+    // maximum quantity of steps of a Turing Machine execution that creates
+    // the ids, used by the id viewer and the simulation
     public static final int TURING_MACHINE_MAX_COUNT = 4000;
+    
+    // default budget of a Turing Machine execution that doesn't create the
+    // ids: maximum quantity of steps and maximum running time (milliseconds)
+    public static final long TURING_MACHINE_HEADLESS_MAX_COUNT = 50000000;
+    public static final long TURING_MACHINE_HEADLESS_MAX_TIME = 3000;
+    
+    // minimum interval (milliseconds) between two progress reports of a
+    // Turing Machine execution
+    public static final long TURING_MACHINE_PROGRESS_INTERVAL = 500;
+    
+    // maximum quantity of tape cells kept by the breadth-first search of a
+    // nondeterministic Turing Machine, summed over all the distinct
+    // configurations (each configuration also costs a fixed overhead)
+    public static final long TURING_MACHINE_NTM_MAX_CELLS = 16000000;
+    
+    // maximum quantity of subset states cached by the lazy DFA execution of
+    // a Finite Automaton before the cache is flushed
+    public static final int FINITE_AUTOMATON_LAZY_DFA_MAX_STATES = 10000;
 
-    // maximum recursion depth when building the PDA id tree. it is a backstop
+    // default maximum depth when building the PDA id tree. it is a backstop
     // for empty (epsilon) transition cycles that keep growing the stack (and so
-    // never repeat the exact same configuration). it must stay well below the
-    // depth that overflows the JVM stack, since buildIDTree is recursive
+    // never repeat the exact same configuration)
     public static final int PUSHDOWN_AUTOMATON_MAX_LEVEL = 1000;
     
+    // default maximum quantity of ids visited when building the PDA id tree
+    public static final int PUSHDOWN_AUTOMATON_MAX_NODES = 200000;
+    
+    // maximum quantity of distinct configurations expanded by the memoized
+    // configuration search of a PDA
+    public static final int PUSHDOWN_AUTOMATON_MAX_CONFIGURATIONS = 200000;
+    
+    // a task of the parallel PDA search gives part of its pending
+    // configurations to other workers while the pool has less than this
+    // quantity of queued tasks to be stolen
+    public static final int PUSHDOWN_AUTOMATON_PARALLEL_SURPLUS = 3;
+    
 }
@@ -422,7 +422,12 @@ public class Utils {
         
         Map<FAState, Map<Character, List<FAState>>> delta = fa.getDelta();
         
-        for ( Map.Entry<FAState, Map<Character, List<FAState>>> entry : delta.entrySet() ) {
+        // the delta follows the insertion order of the states, the rows are
+        // presented ordered by the state number
+        List<Map.Entry<FAState, Map<Character, List<FAState>>>> entries = new ArrayList<>( delta.entrySet() );
+        entries.sort( Map.Entry.comparingByKey() );
+        
+        for ( Map.Entry<FAState, Map<Character, List<FAState>>> entry : entries ) {
             
             FAState state = entry.getKey();
             
@@ -508,7 +513,12 @@ public class Utils {
         
         Map<PDAState, List<PDATransition>> delta = pda.getDelta();
         
-        for ( Map.Entry<PDAState, List<PDATransition>> entry : delta.entrySet() ) {
+        // the delta follows the insertion order of the states, the rows are
+        // presented ordered by the state number
+        List<Map.Entry<PDAState, List<PDATransition>>> entries = new ArrayList<>( delta.entrySet() );
+        entries.sort( Map.Entry.comparingByKey() );
+        
+        for ( Map.Entry<PDAState, List<PDATransition>> entry : entries ) {
             
             PDAState state = entry.getKey();
             
@@ -636,7 +646,12 @@ public class Utils {
         
         Map<TMState, List<TMTransition>> delta = tm.getDelta();
         
-        for ( Map.Entry<TMState, List<TMTransition>> entry : delta.entrySet() ) {
+        // the delta follows the insertion order of the states, the rows are
+        // presented ordered by the state number
+        List<Map.Entry<TMState, List<TMTransition>>> entries = new ArrayList<>( delta.entrySet() );
+        entries.sort( Map.Entry.comparingByKey() );
+        
+        for ( Map.Entry<TMState, List<TMTransition>> entry : entries ) {
             
             TMState state = entry.getKey();
             